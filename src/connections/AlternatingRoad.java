@@ -28,6 +28,13 @@ package connections;
  */
 
 public class AlternatingRoad extends Road{
+
+	/**
+	 * The times of day in seconds at which the road switches direction, or null if the road has no direction schedule.
+	 * The road drives towards endpoint two from the start of each day until the first switch.
+	 */
+	private float[] switchTimes = null;
+
     /**
      * Initializes a new non-terminated one-way road with given ID, first and second location and
      * roadspeed. The road will be given the standard speed limit of 19.5 m/s.
@@ -154,6 +161,44 @@ public class AlternatingRoad extends Road{
         	throw new NullPointerException();
     }
 
+    /**
+     * Sets the delay profile in the direction of endpoint one if the road is travelling in that direction, or if the
+     * road has a direction schedule, in which case it drives in both directions over the day.
+     * @param profile The new delay profile for the road going towards endpoint one, or null to remove it
+     *
+     * @post The delay profile in the direction of endpoint one is equal to the given profile, if travelling in the direction of endpoint one
+     * | if (!directionOfRoad || getDirectionSchedule() != null)
+     * |    then new.getDelayProfileDirectionEndPointOne() == profile
+     * @throws NullPointerException If travelling in direction of endpoint two without a direction schedule.
+     */
+    @Override
+    public void setDelayProfileDirectionEndPointOne(DelayProfile profile) throws NullPointerException {
+        if (!directionOfRoad || switchTimes != null) {
+            super.setDelayProfileDirectionEndPointOne(profile);
+        }
+        else
+        	throw new NullPointerException();
+    }
+
+    /**
+     * Sets the delay profile in the direction of endpoint two if the road is travelling in that direction, or if the
+     * road has a direction schedule, in which case it drives in both directions over the day.
+     * @param profile The new delay profile for the road going towards endpoint two, or null to remove it
+     *
+     * @post The delay profile in the direction of endpoint two is equal to the given profile, if travelling in the direction of endpoint two
+     * | if (directionOfRoad || getDirectionSchedule() != null)
+     * |    then new.getDelayProfileDirectionEndPointTwo() == profile
+     * @throws NullPointerException If travelling in direction of endpoint one without a direction schedule.
+     */
+    @Override
+    public void setDelayProfileDirectionEndPointTwo(DelayProfile profile) throws NullPointerException {
+        if (directionOfRoad || switchTimes != null) {
+            super.setDelayProfileDirectionEndPointTwo(profile);
+        }
+        else
+        	throw new NullPointerException();
+    }
+
     /**
      * Gets the delay of endpoint one if travelling in direction of endpoint one.
      * @throws NullPointerException If travelling in direction of endpoint two.
@@ -241,6 +286,150 @@ public class AlternatingRoad extends Road{
   	}
 
 
+	/**
+	 * Sets the direction schedule of the road to the given switch times, at which the road changes direction every day.
+	 * The road drives towards endpoint two from the start of each day until the first switch time, towards endpoint one
+	 * until the second, and so on. The schedule is consulted by time-dependent travel times; the current direction of
+	 * the road only follows it through applyDirectionSchedule.
+	 *
+	 * @param switchTimes The times of day in seconds at which the road switches direction, or null to remove the schedule
+	 * @throws IllegalArgumentException The given switch times are not a valid direction schedule
+	 * | switchTimes != null && !isValidDirectionSchedule(switchTimes)
+	 * @post The direction schedule of the road is equal to the given switch times
+	 * | Arrays.equals(new.getDirectionSchedule(), switchTimes)
+	 */
+	public void setDirectionSchedule(float[] switchTimes) throws IllegalArgumentException {
+		if (switchTimes != null && !isValidDirectionSchedule(switchTimes))
+			throw new IllegalArgumentException();
+		this.switchTimes = (switchTimes == null) ? null : switchTimes.clone();
+	}
+
+	/**
+	 * Checks whether the given switch times are a valid direction schedule for an alternating road.
+	 *
+	 * @param switchTimes The times of day in seconds at which the road switches direction
+	 * @return True if and only if there is a positive, even number of switch times, so the road drives in the same
+	 * 			direction at the start of every day, and the switch times are strictly increasing and lie within one day.
+	 * | result == (switchTimes.length > 0 && switchTimes.length % 2 == 0 &&
+	 * |	for each i in 0..switchTimes.length-1:
+	 * |		0 <= switchTimes[i] < DelayProfile.PERIOD && (i == 0 || switchTimes[i-1] < switchTimes[i]))
+	 */
+	public static boolean isValidDirectionSchedule(float[] switchTimes) {
+		if (switchTimes.length == 0 || switchTimes.length % 2 != 0)
+			return false;
+		for (int index = 0; index < switchTimes.length; index++) {
+			if (!(switchTimes[index] >= 0.0F && switchTimes[index] < DelayProfile.PERIOD))
+				return false;
+			if (index > 0 && !(switchTimes[index - 1] < switchTimes[index]))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the times of day in seconds at which the road switches direction, or null if it has no direction schedule.
+	 */
+	public float[] getDirectionSchedule() {
+		return (switchTimes == null) ? null : switchTimes.clone();
+	}
+
+	/**
+	 * Checks whether the road drives towards endpoint two at the given time.
+	 *
+	 * @param time The time in seconds since the start of the first day
+	 * @return The current direction of the road if it has no direction schedule, otherwise true if and only if an even
+	 * 			number of switch times lies at or before the given time of day.
+	 * | if (getDirectionSchedule() == null)
+	 * |	result == directionOfRoad
+	 * | else
+	 * |	result == (number of switch times <= time mod DelayProfile.PERIOD) % 2 == 0
+	 */
+	public boolean isDirectedToEndPointTwoAt(float time) {
+		if (switchTimes == null)
+			return directionOfRoad;
+		float timeOfDay = time % DelayProfile.PERIOD;
+		if (timeOfDay < 0.0F)
+			timeOfDay += DelayProfile.PERIOD;
+		int passed = 0;
+		while (passed < switchTimes.length && switchTimes[passed] <= timeOfDay)
+			passed++;
+		return passed % 2 == 0;
+	}
+
+	/**
+	 * Swaps the direction of the road if it differs from the direction its schedule prescribes at the given time.
+	 *
+	 * @param time The time in seconds since the start of the first day
+	 * @post The road drives in the direction its schedule prescribes at the given time
+	 * | new.isDirectedToEndPointTwoAt(time) == new.directionOfRoad
+	 */
+	public void applyDirectionSchedule(float time) {
+		if (isDirectedToEndPointTwoAt(time) != directionOfRoad)
+			swapRoadDirection();
+	}
+
+	/**
+	 * Returns the earliest time at or after the given time at which the road can be entered from the given location
+	 * according to its direction schedule.
+	 *
+	 * @param location The location to leave from
+	 * @param time The time in seconds since the start of the first day at which the location is reached
+	 * @return The given time if the road has no direction schedule or leads away from the given location at that time,
+	 * 			otherwise the first switch time after the given time.
+	 * | if (getDirectionSchedule() == null || isDirectedToEndPointTwoAt(time) == (location == getEndPoint1()))
+	 * |	result == time
+	 * | else
+	 * |	result == the first switch time after time, on the same or the next day
+	 */
+	public float getScheduledDepartureFrom(Location location, float time) {
+		boolean towardsEndPointTwo = (location == location1);
+		if (switchTimes == null || isDirectedToEndPointTwoAt(time) == towardsEndPointTwo)
+			return time;
+		float dayStart = (float) Math.floor(time / DelayProfile.PERIOD) * DelayProfile.PERIOD;
+		float timeOfDay = time - dayStart;
+		for (float switchTime : switchTimes) {
+			if (switchTime > timeOfDay)
+				return dayStart + switchTime;
+		}
+		return dayStart + DelayProfile.PERIOD + switchTimes[0];
+	}
+
+	/**
+	 * Calculates the time of arrival at the other end of the road when driving away from the given location at the
+	 * given time. If the road has a direction schedule, the direction of the road at that time is taken from the
+	 * schedule instead of its current direction, and if the road leads towards the given location at that time, the
+	 * driver waits until it switches direction.
+	 *
+	 * @param location The location to leave from
+	 * @param departureTime The time of departure in seconds
+	 * @return The time of arrival as calculated for any road if the road has no direction schedule
+	 * | if (getDirectionSchedule() == null)
+	 * |	result == super.calculateArrivalTimeFrom(location, departureTime)
+	 * @return Infinity if the road is terminated, starts and ends in the same location, does not have the given location
+	 * 			as endpoint, or is blocked in the direction leading away from the given location.
+	 * @return Otherwise the scheduled time of departure from the given location plus the travel time in the direction
+	 * 			leading away from it and the delay of its delay profile at the scheduled time of departure.
+	 * | let start = getScheduledDepartureFrom(location, departureTime) in
+	 * |	result == start + getLength() / getRoadSpeed() + delay in that direction + profile delay at start
+	 */
+	@Override
+	public float calculateArrivalTimeFrom(Location location, float departureTime) {
+		if (switchTimes == null)
+			return super.calculateArrivalTimeFrom(location, departureTime);
+		if (isTerminated || location1 == location2 || (location != location1 && location != location2))
+			return Float.POSITIVE_INFINITY;
+		boolean towardsEndPointTwo = (location == location1);
+		if (towardsEndPointTwo ? super.isBlockedDirectionEndPointTwo() : super.isBlockedDirectionEndPointOne())
+			return Float.POSITIVE_INFINITY;
+		float start = getScheduledDepartureFrom(location, departureTime);
+		float travelTime = (getLength() / getRoadSpeed())
+				+ (towardsEndPointTwo ? super.getDelayDirectionEndPointTwo() : super.getDelayDirectionEndPointOne());
+		DelayProfile profile = towardsEndPointTwo ? getDelayProfileDirectionEndPointTwo() : getDelayProfileDirectionEndPointOne();
+		if (profile != null)
+			travelTime += profile.getDelay(start);
+		return start + travelTime;
+	}
+
     /**
 	 * Get all valid start locations for this road
 	 * For an alternating road, this returns the start location, which is updated by changing the direction
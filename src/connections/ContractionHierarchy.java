@@ -0,0 +1,556 @@
+package connections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.PriorityQueue;
+
+/**
+ * A class of contraction hierarchies, indexes on a road network that answer fastest route queries by searching only
+ * upwards in a ranking of the locations. Locations are contracted one by one from least to most important, adding a
+ * shortcut between two neighbours whenever the fastest connection between them ran through the contracted location.
+ * Each shortcut remembers the two edges it replaces, so a route found in the hierarchy unpacks into its real roads.
+ *
+ * The hierarchy is built with the travel times of the roads at the time of building. It is rebuilt automatically
+ * before the first query after a road was created, terminated or swapped, including roads terminated by terminating
+ * one of their locations, and after the length, speed, delay or blocked status of any road changed, since the order
+ * and shortcuts of the hierarchy depend on those travel times. Changes are not tracked per network, so a change to a
+ * road elsewhere also causes a rebuild; a network whose travel times change often is better served by a
+ * CustomizableRouteIndex, which re-weights without reordering. A hierarchy reuses its search arrays between queries
+ * and is therefore not meant to be queried from several threads at once.
+ *
+ * @author Michiel Van der Haegen
+ * @author Sam Haberman
+ */
+public class ContractionHierarchy {
+
+	/**
+	 * The maximum number of locations a witness search settles before assuming no witness exists.
+	 */
+	private static final int WITNESS_SETTLE_LIMIT = 500;
+
+	/**
+	 * The indexed road network this hierarchy was built on.
+	 */
+	private RoadGraph graph;
+
+	/**
+	 * The edges of the hierarchy leading from each location to a location of higher rank.
+	 */
+	private Edge[][] upwardEdges;
+
+	/**
+	 * The edges of the hierarchy arriving at each location from a location of higher rank.
+	 */
+	private Edge[][] downwardEdges;
+
+	/**
+	 * The travel times of the forward search of the last query, infinite for locations it did not reach.
+	 */
+	private float[] forwardTimes;
+
+	/**
+	 * The travel times of the backward search of the last query, infinite for locations it did not reach.
+	 */
+	private float[] backwardTimes;
+
+	/**
+	 * The edge over which the forward search of the last query reached each location.
+	 */
+	private Edge[] forwardReachedBy;
+
+	/**
+	 * The edge over which the backward search of the last query reached each location.
+	 */
+	private Edge[] backwardReachedBy;
+
+	/**
+	 * The locations reached by the forward search of the last query.
+	 */
+	private final ArrayList<Integer> forwardTouched = new ArrayList<>();
+
+	/**
+	 * The locations reached by the backward search of the last query.
+	 */
+	private final ArrayList<Integer> backwardTouched = new ArrayList<>();
+
+	/**
+	 * The heap of locations that the search of the last query still had to settle.
+	 */
+	private LocationHeap heap;
+
+	/**
+	 * Initialize a new contraction hierarchy on the road network consisting of the given locations and every location
+	 * connected to them through a chain of adjoining roads.
+	 *
+	 * @param locations
+	 * 		The locations of the network
+	 * @throws NullPointerException
+	 * 		The given collection is null or contains null
+	 * 	|	locations == null || locations.contains(null)
+	 */
+	public ContractionHierarchy(Collection<Location> locations) throws NullPointerException {
+		build(new RoadGraph(locations));
+	}
+
+	/**
+	 * Checks whether this hierarchy still reflects the topology and travel times of the road network.
+	 *
+	 * @return False if a road was created, terminated or swapped, or the length, speed, delay or blocked status of a
+	 * 			road changed, since this hierarchy was last built.
+	 * 	|	result == (Road.getTopologyVersion() and Road.getMetricVersion() did not change since the last build)
+	 */
+	public boolean isUpToDate() {
+		return graph.hasCurrentTravelTimes();
+	}
+
+	/**
+	 * Rebuilds this hierarchy from the current roads and their current travel times.
+	 *
+	 * @post The hierarchy is up to date
+	 * 	|	new.isUpToDate()
+	 */
+	public void rebuild() {
+		build(graph.rebuild());
+	}
+
+	/**
+	 * Contracts the given road graph and allocates the search arrays of this hierarchy for its locations.
+	 *
+	 * @param graph The road graph to build this hierarchy on
+	 */
+	private void build(RoadGraph graph) {
+		this.graph = graph;
+		new Contraction(graph).contract();
+		int count = graph.getLocationCount();
+		forwardTimes = new float[count];
+		backwardTimes = new float[count];
+		forwardReachedBy = new Edge[count];
+		backwardReachedBy = new Edge[count];
+		Arrays.fill(forwardTimes, Float.POSITIVE_INFINITY);
+		Arrays.fill(backwardTimes, Float.POSITIVE_INFINITY);
+		forwardTouched.clear();
+		backwardTouched.clear();
+		heap = new LocationHeap(count);
+	}
+
+	/**
+	 * Returns the fastest route from the given origin to the given destination according to this hierarchy.
+	 * The hierarchy is rebuilt first if it is no longer up to date.
+	 *
+	 * @param origin
+	 * 		The location the route has to start in
+	 * @param destination
+	 * 		The location the route has to end in
+	 * @throws NullPointerException
+	 * 		The given origin or destination is null
+	 * 	|	origin == null || destination == null
+	 * @throws IllegalArgumentException
+	 * 		The given origin or destination is terminated or not part of the network of this hierarchy
+	 * @return Null if the destination cannot be reached from the origin, otherwise the route with the smallest total
+	 * 			travel time, measured with the current travel times of the roads.
+	 * 	|	result == null || (result.getStartLocations()[0] == origin && result.getEndLocation() == destination)
+	 */
+	public Route findFastestRoute(Location origin, Location destination) throws NullPointerException, IllegalArgumentException {
+		if (origin == null || destination == null)
+			throw new NullPointerException();
+		if (origin.isTerminated() || destination.isTerminated())
+			throw new IllegalArgumentException();
+		if (!isUpToDate())
+			rebuild();
+		int source = graph.getIndex(origin);
+		int target = graph.getIndex(destination);
+		clearSearch(forwardTimes, forwardTouched);
+		clearSearch(backwardTimes, backwardTouched);
+		upwardSearch(source, forwardTimes, forwardReachedBy, forwardTouched, upwardEdges, true);
+		upwardSearch(target, backwardTimes, backwardReachedBy, backwardTouched, downwardEdges, false);
+		float best = Float.POSITIVE_INFINITY;
+		int meeting = -1;
+		for (int index : forwardTouched) {
+			if (forwardTimes[index] + backwardTimes[index] < best) {
+				best = forwardTimes[index] + backwardTimes[index];
+				meeting = index;
+			}
+		}
+		if (meeting < 0)
+			return null;
+		ArrayList<Integer> arcs = new ArrayList<>();
+		ArrayList<Edge> forwardEdges = new ArrayList<>();
+		for (int index = meeting; index != source; index = forwardReachedBy[index].tail)
+			forwardEdges.add(forwardReachedBy[index]);
+		for (int position = forwardEdges.size() - 1; position >= 0; position--)
+			forwardEdges.get(position).unpack(arcs);
+		for (int index = meeting; index != target; index = backwardReachedBy[index].head)
+			backwardReachedBy[index].unpack(arcs);
+		int[] path = new int[arcs.size()];
+		for (int position = 0; position < path.length; position++)
+			path[position] = arcs.get(position);
+		return graph.buildRoute(origin, path);
+	}
+
+	/**
+	 * Resets the travel times set by a previous search.
+	 *
+	 * @param times The travel times of the search
+	 * @param touched The locations reached by the search
+	 */
+	private void clearSearch(float[] times, ArrayList<Integer> touched) {
+		for (int index : touched)
+			times[index] = Float.POSITIVE_INFINITY;
+		touched.clear();
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm from the given location over the given edges, which all lead to locations of higher rank.
+	 *
+	 * @param start The index of the location to start from
+	 * @param times The travel time at which each location was reached
+	 * @param reachedBy The edge over which each location was reached
+	 * @param touched The list in which each reached location is registered
+	 * @param edges The edges to search over for each location
+	 * @param forward Whether edges are followed from their tail to their head
+	 */
+	private void upwardSearch(int start, float[] times, Edge[] reachedBy, ArrayList<Integer> touched, Edge[][] edges,
+			boolean forward) {
+		times[start] = 0.0F;
+		touched.add(start);
+		heap.push(start, 0.0F);
+		while (!heap.isEmpty()) {
+			float time = heap.peekKey();
+			int index = heap.pop();
+			for (Edge edge : edges[index]) {
+				int next = forward ? edge.head : edge.tail;
+				float nextTime = time + edge.travelTime;
+				if (nextTime < times[next]) {
+					if (times[next] == Float.POSITIVE_INFINITY)
+						touched.add(next);
+					times[next] = nextTime;
+					reachedBy[next] = edge;
+					heap.push(next, nextTime);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A class of edges in a contraction hierarchy, which are either an arc of the road graph or a shortcut replacing
+	 * two consecutive edges.
+	 */
+	private static class Edge {
+
+		/**
+		 * The index of the location this edge leaves from.
+		 */
+		private final int tail;
+
+		/**
+		 * The index of the location this edge arrives at.
+		 */
+		private final int head;
+
+		/**
+		 * The travel time of this edge.
+		 */
+		private final float travelTime;
+
+		/**
+		 * The arc of the road graph this edge represents, or -1 if this edge is a shortcut.
+		 */
+		private final int arc;
+
+		/**
+		 * The first edge replaced by this shortcut.
+		 */
+		private final Edge first;
+
+		/**
+		 * The second edge replaced by this shortcut.
+		 */
+		private final Edge second;
+
+		/**
+		 * Initialize a new edge representing the given arc.
+		 *
+		 * @param tail The index of the location the edge leaves from
+		 * @param head The index of the location the edge arrives at
+		 * @param travelTime The travel time of the edge
+		 * @param arc The arc of the road graph the edge represents
+		 */
+		private Edge(int tail, int head, float travelTime, int arc) {
+			this.tail = tail;
+			this.head = head;
+			this.travelTime = travelTime;
+			this.arc = arc;
+			this.first = null;
+			this.second = null;
+		}
+
+		/**
+		 * Initialize a new shortcut replacing the given consecutive edges.
+		 *
+		 * @param first The first edge replaced by the shortcut
+		 * @param second The second edge replaced by the shortcut
+		 */
+		private Edge(Edge first, Edge second) {
+			this.tail = first.tail;
+			this.head = second.head;
+			this.travelTime = first.travelTime + second.travelTime;
+			this.arc = -1;
+			this.first = first;
+			this.second = second;
+		}
+
+		/**
+		 * Appends the arcs of the road graph this edge represents to the given list, in driving order.
+		 *
+		 * @param arcs The list to append to
+		 */
+		private void unpack(ArrayList<Integer> arcs) {
+			if (arc >= 0) {
+				arcs.add(arc);
+			} else {
+				first.unpack(arcs);
+				second.unpack(arcs);
+			}
+		}
+	}
+
+	/**
+	 * A class of contraction processes that order the locations of a road graph and collect the edges of the hierarchy.
+	 */
+	private class Contraction {
+
+		/**
+		 * The road graph being contracted.
+		 */
+		private final RoadGraph graph;
+
+		/**
+		 * The edges leaving each location in the remaining graph.
+		 */
+		private final ArrayList<ArrayList<Edge>> leaving = new ArrayList<>();
+
+		/**
+		 * The edges arriving at each location in the remaining graph.
+		 */
+		private final ArrayList<ArrayList<Edge>> arriving = new ArrayList<>();
+
+		/**
+		 * Whether each location has been contracted.
+		 */
+		private final boolean[] contracted;
+
+		/**
+		 * The number of contracted neighbours of each location, which spreads the contraction evenly over the network.
+		 */
+		private final int[] contractedNeighbours;
+
+		/**
+		 * The travel times of the current witness search.
+		 */
+		private final float[] witnessTimes;
+
+		/**
+		 * The locations whose witness travel time was set by the current witness search.
+		 */
+		private final ArrayList<Integer> witnessTouched = new ArrayList<>();
+
+		/**
+		 * The heap of locations that the current witness search still has to settle.
+		 */
+		private final LocationHeap witnessHeap;
+
+		/**
+		 * Initialize a new contraction of the given road graph.
+		 *
+		 * @param graph The road graph to contract
+		 */
+		private Contraction(RoadGraph graph) {
+			this.graph = graph;
+			int count = graph.getLocationCount();
+			this.contracted = new boolean[count];
+			this.contractedNeighbours = new int[count];
+			this.witnessTimes = new float[count];
+			this.witnessHeap = new LocationHeap(count);
+			Arrays.fill(witnessTimes, Float.POSITIVE_INFINITY);
+			for (int index = 0; index < count; index++) {
+				leaving.add(new ArrayList<>());
+				arriving.add(new ArrayList<>());
+			}
+			for (int arc = 0; arc < graph.getArcCount(); arc++) {
+				float travelTime = graph.getTravelTime(arc);
+				if (travelTime != Float.POSITIVE_INFINITY)
+					addEdge(new Edge(graph.getTail(arc), graph.getHead(arc), travelTime, arc));
+			}
+		}
+
+		/**
+		 * Contracts all locations in order of their importance and registers the resulting edges in the enclosing
+		 * hierarchy. Edges that remain at a location when it is contracted lead to or arrive from locations that are
+		 * contracted later, and thus have a higher rank.
+		 */
+		private void contract() {
+			int count = graph.getLocationCount();
+			int[] priorities = new int[count];
+			PriorityQueue<int[]> queue = new PriorityQueue<>((first, second) -> Integer.compare(first[1], second[1]));
+			for (int index = 0; index < count; index++) {
+				priorities[index] = priority(index);
+				queue.add(new int[] {index, priorities[index]});
+			}
+			ArrayList<ArrayList<Edge>> upward = new ArrayList<>();
+			ArrayList<ArrayList<Edge>> downward = new ArrayList<>();
+			for (int index = 0; index < count; index++) {
+				upward.add(new ArrayList<>());
+				downward.add(new ArrayList<>());
+			}
+			while (!queue.isEmpty()) {
+				int[] entry = queue.poll();
+				int index = entry[0];
+				if (contracted[index] || entry[1] != priorities[index])
+					continue;
+				int priority = priority(index);
+				if (!queue.isEmpty() && priority > queue.peek()[1]) {
+					priorities[index] = priority;
+					queue.add(new int[] {index, priority});
+					continue;
+				}
+				for (Edge edge : leaving.get(index))
+					upward.get(index).add(edge);
+				for (Edge edge : arriving.get(index))
+					downward.get(index).add(edge);
+				for (Edge shortcut : findShortcuts(index))
+					addEdge(shortcut);
+				contracted[index] = true;
+				for (Edge edge : leaving.get(index))
+					contractedNeighbours[edge.head]++;
+				for (Edge edge : arriving.get(index))
+					contractedNeighbours[edge.tail]++;
+				removeLocation(index);
+			}
+			upwardEdges = new Edge[count][];
+			downwardEdges = new Edge[count][];
+			for (int index = 0; index < count; index++) {
+				upwardEdges[index] = upward.get(index).toArray(new Edge[0]);
+				downwardEdges[index] = downward.get(index).toArray(new Edge[0]);
+			}
+		}
+
+		/**
+		 * Returns the priority of contracting the given location next, where a lower value means contracting sooner.
+		 *
+		 * @param index The index of the location
+		 * @return The number of shortcuts the contraction would add minus the number of edges it would remove, plus
+		 * 			the number of neighbours that were already contracted.
+		 */
+		private int priority(int index) {
+			return findShortcuts(index).size() - leaving.get(index).size() - arriving.get(index).size()
+					+ contractedNeighbours[index];
+		}
+
+		/**
+		 * Returns the shortcuts needed to preserve all fastest connections through the given location when it is
+		 * removed from the remaining graph.
+		 *
+		 * @param index The index of the location to contract
+		 * @return For each pair of an arriving and a leaving edge of the location for which no connection that avoids
+		 * 			the location is at least as fast, a shortcut replacing both edges.
+		 */
+		private ArrayList<Edge> findShortcuts(int index) {
+			ArrayList<Edge> shortcuts = new ArrayList<>();
+			float maxLeaving = 0.0F;
+			for (Edge edge : leaving.get(index))
+				maxLeaving = Math.max(maxLeaving, edge.travelTime);
+			for (Edge in : arriving.get(index)) {
+				if (in.tail == index)
+					continue;
+				witnessSearch(in.tail, index, in.travelTime + maxLeaving);
+				for (Edge out : leaving.get(index)) {
+					if (out.head == in.tail || out.head == index)
+						continue;
+					if (in.travelTime + out.travelTime < witnessTimes[out.head])
+						shortcuts.add(new Edge(in, out));
+				}
+				clearWitnessSearch();
+			}
+			return shortcuts;
+		}
+
+		/**
+		 * Runs a bounded Dijkstra search in the remaining graph from the given location, avoiding the given location.
+		 *
+		 * @param start The index of the location to start from
+		 * @param avoided The index of the location to avoid
+		 * @param limit The travel time beyond which the search stops
+		 */
+		private void witnessSearch(int start, int avoided, float limit) {
+			witnessTimes[start] = 0.0F;
+			witnessTouched.add(start);
+			witnessHeap.push(start, 0.0F);
+			int settled = 0;
+			while (!witnessHeap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+				float time = witnessHeap.peekKey();
+				if (time > limit)
+					break;
+				int location = witnessHeap.pop();
+				settled++;
+				for (Edge edge : leaving.get(location)) {
+					if (edge.head == avoided)
+						continue;
+					float nextTime = time + edge.travelTime;
+					if (nextTime < witnessTimes[edge.head]) {
+						if (witnessTimes[edge.head] == Float.POSITIVE_INFINITY)
+							witnessTouched.add(edge.head);
+						witnessTimes[edge.head] = nextTime;
+						witnessHeap.push(edge.head, nextTime);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Resets the travel times set by the last witness search and empties its heap.
+		 */
+		private void clearWitnessSearch() {
+			for (int location : witnessTouched)
+				witnessTimes[location] = Float.POSITIVE_INFINITY;
+			witnessTouched.clear();
+			witnessHeap.clear();
+		}
+
+		/**
+		 * Adds the given edge to the remaining graph, unless an edge between the same locations is at least as fast.
+		 * A slower edge between the same locations is replaced.
+		 *
+		 * @param edge The edge to add
+		 */
+		private void addEdge(Edge edge) {
+			ArrayList<Edge> tailEdges = leaving.get(edge.tail);
+			for (int position = 0; position < tailEdges.size(); position++) {
+				Edge existing = tailEdges.get(position);
+				if (existing.head == edge.head) {
+					if (existing.travelTime <= edge.travelTime)
+						return;
+					tailEdges.remove(position);
+					arriving.get(edge.head).remove(existing);
+					break;
+				}
+			}
+			tailEdges.add(edge);
+			arriving.get(edge.head).add(edge);
+		}
+
+		/**
+		 * Removes the given location and all its edges from the remaining graph.
+		 *
+		 * @param index The index of the location to remove
+		 */
+		private void removeLocation(int index) {
+			for (Edge edge : leaving.get(index))
+				arriving.get(edge.head).remove(edge);
+			for (Edge edge : arriving.get(index))
+				leaving.get(edge.tail).remove(edge);
+			leaving.get(index).clear();
+			arriving.get(index).clear();
+		}
+	}
+}
@@ -0,0 +1,425 @@
+package connections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+
+/**
+ * A class of customizable route indexes, contraction hierarchies whose structure only depends on the topology of the
+ * road network. The locations are ordered once by eliminating them in order of their number of neighbours, which
+ * connects all neighbours of each eliminated location regardless of travel times. Customization then fills in the
+ * travel time of every edge bottom-up, so a change of delays or blocked statuses only requires a new customization
+ * instead of a new ordering.
+ *
+ * The index customizes itself before the first query after the length, speed, delay or blocked status of any road
+ * changed, and is rebuilt before the first query after a road was created, terminated or swapped. It reuses its search
+ * arrays between queries and is therefore not meant to be queried from several threads at once.
+ *
+ * @author Michiel Van der Haegen
+ * @author Sam Haberman
+ */
+public class CustomizableRouteIndex {
+
+	/**
+	 * The indexed road network this index was built on.
+	 */
+	private RoadGraph graph;
+
+	/**
+	 * The position of each location in the elimination order.
+	 */
+	private int[] ranks;
+
+	/**
+	 * The neighbours of each location that were eliminated after it, sorted by rank.
+	 */
+	private int[][] upperNeighbours;
+
+	/**
+	 * The edge between each location and each of its upper neighbours, at the same position as the neighbour.
+	 */
+	private int[][] upperEdges;
+
+	/**
+	 * Map registering the edge between each pair of neighbouring locations, keyed by both indices.
+	 */
+	private HashMap<Long, Integer> edgeIndices;
+
+	/**
+	 * For each location, the edge between each pair of its upper neighbours, enumerated pair by pair with the lower
+	 * ranked neighbour in the outer loop, so customization needs no lookups.
+	 */
+	private int[][] upperTriangles;
+
+	/**
+	 * The travel time of each edge from its lower ranked to its higher ranked location.
+	 */
+	private float[] upwardTimes;
+
+	/**
+	 * The travel time of each edge from its higher ranked to its lower ranked location.
+	 */
+	private float[] downwardTimes;
+
+	/**
+	 * For each edge in upward direction, the arc it represents if non-negative, or minus one minus the location
+	 * its fastest connection runs through.
+	 */
+	private int[] upwardVia;
+
+	/**
+	 * For each edge in downward direction, the arc it represents if non-negative, or minus one minus the location
+	 * its fastest connection runs through.
+	 */
+	private int[] downwardVia;
+
+	/**
+	 * The metric version of the roads at the time of the last customization.
+	 */
+	private long customizedVersion;
+
+	/**
+	 * The travel times of the forward search of the last query, infinite for locations it did not reach.
+	 */
+	private float[] forwardTimes;
+
+	/**
+	 * The travel times of the backward search of the last query, infinite for locations it did not reach.
+	 */
+	private float[] backwardTimes;
+
+	/**
+	 * The location from which the forward search of the last query reached each location.
+	 */
+	private int[] forwardParents;
+
+	/**
+	 * The location from which the backward search of the last query reached each location.
+	 */
+	private int[] backwardParents;
+
+	/**
+	 * The locations reached by the forward search of the last query.
+	 */
+	private final ArrayList<Integer> forwardTouched = new ArrayList<>();
+
+	/**
+	 * The locations reached by the backward search of the last query.
+	 */
+	private final ArrayList<Integer> backwardTouched = new ArrayList<>();
+
+	/**
+	 * The heap of locations that the search of the last query still had to settle.
+	 */
+	private LocationHeap heap;
+
+	/**
+	 * Initialize a new customizable route index on the road network consisting of the given locations and every
+	 * location connected to them through a chain of adjoining roads.
+	 *
+	 * @param locations
+	 * 		The locations of the network
+	 * @throws NullPointerException
+	 * 		The given collection is null or contains null
+	 * 	|	locations == null || locations.contains(null)
+	 */
+	public CustomizableRouteIndex(Collection<Location> locations) throws NullPointerException {
+		build(new RoadGraph(locations));
+	}
+
+	/**
+	 * Checks whether the ordering of this index still reflects the topology of the road network.
+	 *
+	 * @return False if a road was created, terminated or swapped since this index was last built.
+	 */
+	public boolean isUpToDate() {
+		return !graph.isOutdated();
+	}
+
+	/**
+	 * Checks whether the travel times of this index still reflect the roads of the network.
+	 *
+	 * @return False if the length, speed, delay or blocked status of a road changed since the last customization.
+	 */
+	public boolean isCustomized() {
+		return customizedVersion == Road.getMetricVersion();
+	}
+
+	/**
+	 * Rebuilds the ordering of this index from the current topology of the road network and customizes it.
+	 *
+	 * @post The index is up to date and customized
+	 * 	|	new.isUpToDate() && new.isCustomized()
+	 */
+	public void rebuild() {
+		build(graph.rebuild());
+	}
+
+	/**
+	 * Orders the locations of the given road graph, allocates the search arrays of this index for them and customizes
+	 * this index.
+	 *
+	 * @param graph The road graph to build this index on
+	 */
+	private void build(RoadGraph graph) {
+		this.graph = graph;
+		order();
+		int count = graph.getLocationCount();
+		forwardTimes = new float[count];
+		backwardTimes = new float[count];
+		forwardParents = new int[count];
+		backwardParents = new int[count];
+		Arrays.fill(forwardTimes, Float.POSITIVE_INFINITY);
+		Arrays.fill(backwardTimes, Float.POSITIVE_INFINITY);
+		forwardTouched.clear();
+		backwardTouched.clear();
+		heap = new LocationHeap(count);
+		customize();
+	}
+
+	/**
+	 * Eliminates the locations of the road graph in order of their number of remaining neighbours, connecting all
+	 * remaining neighbours of each eliminated location, and registers the resulting order and edges.
+	 */
+	private void order() {
+		int count = graph.getLocationCount();
+		ArrayList<HashSet<Integer>> neighbours = new ArrayList<>();
+		for (int index = 0; index < count; index++)
+			neighbours.add(new HashSet<>());
+		for (int arc = 0; arc < graph.getArcCount(); arc++) {
+			neighbours.get(graph.getTail(arc)).add(graph.getHead(arc));
+			neighbours.get(graph.getHead(arc)).add(graph.getTail(arc));
+		}
+		ranks = new int[count];
+		upperNeighbours = new int[count][];
+		boolean[] eliminated = new boolean[count];
+		PriorityQueue<int[]> queue = new PriorityQueue<>((first, second) -> Integer.compare(first[1], second[1]));
+		for (int index = 0; index < count; index++)
+			queue.add(new int[] {index, neighbours.get(index).size()});
+		int rank = 0;
+		while (!queue.isEmpty()) {
+			int[] entry = queue.poll();
+			int index = entry[0];
+			if (eliminated[index] || entry[1] != neighbours.get(index).size())
+				continue;
+			eliminated[index] = true;
+			ranks[index] = rank++;
+			HashSet<Integer> remaining = neighbours.get(index);
+			upperNeighbours[index] = new int[remaining.size()];
+			int position = 0;
+			for (int neighbour : remaining) {
+				upperNeighbours[index][position++] = neighbour;
+				neighbours.get(neighbour).remove(index);
+				neighbours.get(neighbour).addAll(remaining);
+				neighbours.get(neighbour).remove(neighbour);
+			}
+			for (int neighbour : remaining)
+				queue.add(new int[] {neighbour, neighbours.get(neighbour).size()});
+		}
+		edgeIndices = new HashMap<>();
+		upperEdges = new int[count][];
+		int edgeCount = 0;
+		for (int index = 0; index < count; index++) {
+			Integer[] sorted = new Integer[upperNeighbours[index].length];
+			for (int position = 0; position < sorted.length; position++)
+				sorted[position] = upperNeighbours[index][position];
+			Arrays.sort(sorted, (first, second) -> Integer.compare(ranks[first], ranks[second]));
+			upperEdges[index] = new int[sorted.length];
+			for (int position = 0; position < sorted.length; position++) {
+				upperNeighbours[index][position] = sorted[position];
+				upperEdges[index][position] = edgeCount;
+				edgeIndices.put(edgeKey(index, sorted[position]), edgeCount++);
+			}
+		}
+		upperTriangles = new int[count][];
+		for (int index = 0; index < count; index++) {
+			int[] upper = upperNeighbours[index];
+			upperTriangles[index] = new int[upper.length * (upper.length - 1) / 2];
+			int position = 0;
+			for (int low = 0; low < upper.length; low++) {
+				for (int high = low + 1; high < upper.length; high++)
+					upperTriangles[index][position++] = edgeIndices.get(edgeKey(upper[low], upper[high]));
+			}
+		}
+		upwardTimes = new float[edgeCount];
+		downwardTimes = new float[edgeCount];
+		upwardVia = new int[edgeCount];
+		downwardVia = new int[edgeCount];
+	}
+
+	/**
+	 * Returns the key under which the edge between the given locations is registered.
+	 *
+	 * @param first The index of one location of the edge
+	 * @param second The index of the other location of the edge
+	 */
+	private static long edgeKey(int first, int second) {
+		return ((long) Math.min(first, second) << 32) | Math.max(first, second);
+	}
+
+	/**
+	 * Recomputes the travel time of every edge of this index from the current travel times of the roads, without
+	 * changing the ordering. The travel time of an edge is lowered bottom-up to the travel time of the connection through
+	 * each lower ranked location that neighbours both its locations.
+	 *
+	 * @post The index is customized
+	 * 	|	new.isCustomized()
+	 */
+	public void customize() {
+		customizedVersion = Road.getMetricVersion();
+		graph = graph.withCurrentTravelTimes();
+		Arrays.fill(upwardTimes, Float.POSITIVE_INFINITY);
+		Arrays.fill(downwardTimes, Float.POSITIVE_INFINITY);
+		for (int arc = 0; arc < graph.getArcCount(); arc++) {
+			int tail = graph.getTail(arc);
+			int head = graph.getHead(arc);
+			int edge = edgeIndices.get(edgeKey(tail, head));
+			float travelTime = graph.getTravelTime(arc);
+			if (ranks[tail] < ranks[head]) {
+				if (travelTime < upwardTimes[edge]) {
+					upwardTimes[edge] = travelTime;
+					upwardVia[edge] = arc;
+				}
+			} else if (travelTime < downwardTimes[edge]) {
+				downwardTimes[edge] = travelTime;
+				downwardVia[edge] = arc;
+			}
+		}
+		Integer[] byRank = new Integer[graph.getLocationCount()];
+		for (int index = 0; index < byRank.length; index++)
+			byRank[ranks[index]] = index;
+		for (int location : byRank) {
+			int[] edges = upperEdges[location];
+			int[] triangles = upperTriangles[location];
+			int position = 0;
+			for (int low = 0; low < edges.length; low++) {
+				for (int high = low + 1; high < edges.length; high++) {
+					int edge = triangles[position++];
+					float upward = downwardTimes[edges[low]] + upwardTimes[edges[high]];
+					if (upward < upwardTimes[edge]) {
+						upwardTimes[edge] = upward;
+						upwardVia[edge] = -1 - location;
+					}
+					float downward = downwardTimes[edges[high]] + upwardTimes[edges[low]];
+					if (downward < downwardTimes[edge]) {
+						downwardTimes[edge] = downward;
+						downwardVia[edge] = -1 - location;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the fastest route from the given origin to the given destination according to this index.
+	 * The index is rebuilt first if it is no longer up to date, and customized first if it is no longer customized.
+	 *
+	 * @param origin
+	 * 		The location the route has to start in
+	 * @param destination
+	 * 		The location the route has to end in
+	 * @throws NullPointerException
+	 * 		The given origin or destination is null
+	 * 	|	origin == null || destination == null
+	 * @throws IllegalArgumentException
+	 * 		The given origin or destination is terminated or not part of the network of this index
+	 * @return Null if the destination cannot be reached from the origin, otherwise the route with the smallest total
+	 * 			travel time.
+	 * 	|	result == null || (result.getStartLocations()[0] == origin && result.getEndLocation() == destination)
+	 */
+	public Route findFastestRoute(Location origin, Location destination) throws NullPointerException, IllegalArgumentException {
+		if (origin == null || destination == null)
+			throw new NullPointerException();
+		if (origin.isTerminated() || destination.isTerminated())
+			throw new IllegalArgumentException();
+		if (!isUpToDate())
+			rebuild();
+		else if (!isCustomized())
+			customize();
+		int source = graph.getIndex(origin);
+		int target = graph.getIndex(destination);
+		upwardSearch(source, forwardTimes, forwardParents, forwardTouched, upwardTimes);
+		upwardSearch(target, backwardTimes, backwardParents, backwardTouched, downwardTimes);
+		float best = Float.POSITIVE_INFINITY;
+		int meeting = -1;
+		for (int index : forwardTouched) {
+			if (forwardTimes[index] + backwardTimes[index] < best) {
+				best = forwardTimes[index] + backwardTimes[index];
+				meeting = index;
+			}
+		}
+		if (meeting < 0)
+			return null;
+		ArrayList<Integer> arcs = new ArrayList<>();
+		ArrayList<Integer> forwardPath = new ArrayList<>();
+		for (int index = meeting; index != source; index = forwardParents[index])
+			forwardPath.add(index);
+		int tracker = source;
+		for (int position = forwardPath.size() - 1; position >= 0; position--) {
+			unpack(tracker, forwardPath.get(position), arcs);
+			tracker = forwardPath.get(position);
+		}
+		for (int index = meeting; index != target; index = backwardParents[index])
+			unpack(index, backwardParents[index], arcs);
+		int[] path = new int[arcs.size()];
+		for (int position = 0; position < path.length; position++)
+			path[position] = arcs.get(position);
+		return graph.buildRoute(origin, path);
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm from the given location towards locations of higher rank, using the given travel times
+	 * of the edges between each location and its upper neighbours.
+	 *
+	 * @param start The index of the location to start from
+	 * @param times The travel time at which each location was reached
+	 * @param parents The location from which each location was reached
+	 * @param touched The list in which each reached location is registered
+	 * @param edgeTimes The travel time of each edge in the direction of the search
+	 */
+	private void upwardSearch(int start, float[] times, int[] parents, ArrayList<Integer> touched, float[] edgeTimes) {
+		for (int index : touched)
+			times[index] = Float.POSITIVE_INFINITY;
+		touched.clear();
+		times[start] = 0.0F;
+		touched.add(start);
+		heap.push(start, 0.0F);
+		while (!heap.isEmpty()) {
+			float time = heap.peekKey();
+			int index = heap.pop();
+			for (int position = 0; position < upperNeighbours[index].length; position++) {
+				int next = upperNeighbours[index][position];
+				float nextTime = time + edgeTimes[upperEdges[index][position]];
+				if (nextTime < times[next]) {
+					if (times[next] == Float.POSITIVE_INFINITY)
+						touched.add(next);
+					times[next] = nextTime;
+					parents[next] = index;
+					heap.push(next, nextTime);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Appends the arcs of the fastest connection represented by the edge from the first to the second given location
+	 * to the given list, in driving order.
+	 *
+	 * @param from The index of the location the connection leaves from
+	 * @param to The index of the location the connection arrives at
+	 * @param arcs The list to append to
+	 */
+	private void unpack(int from, int to, ArrayList<Integer> arcs) {
+		int edge = edgeIndices.get(edgeKey(from, to));
+		int via = ranks[from] < ranks[to] ? upwardVia[edge] : downwardVia[edge];
+		if (via >= 0) {
+			arcs.add(via);
+		} else {
+			unpack(from, -1 - via, arcs);
+			unpack(-1 - via, to, arcs);
+		}
+	}
+}
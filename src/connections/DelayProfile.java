@@ -0,0 +1,154 @@
+package connections;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A class of delay profiles, describing how the delay on a road changes over the day. A profile consists of a number
+ * of breakpoints, each with a time of day in seconds and a delay in seconds. Between two breakpoints the delay changes
+ * linearly, and after the last breakpoint of the day it changes linearly towards the first breakpoint of the next day,
+ * so the profile repeats itself every day.
+ *
+ * Every profile is FIFO: the delay never drops faster than time passes, so leaving later never means arriving earlier.
+ *
+ * @invar The breakpoints of each profile are valid breakpoints for any profile
+ * 		| isValidBreakpoints(getBreakpointTimes(), getBreakpointDelays())
+ *
+ * @author Michiel Van der Haegen
+ * @author Sam Haberman
+ */
+public class DelayProfile {
+
+	/**
+	 * The number of seconds after which every profile repeats itself, one day.
+	 */
+	public static final float PERIOD = 86400.0F;
+
+	/**
+	 * The time of day of each breakpoint, in seconds.
+	 */
+	private final float[] times;
+
+	/**
+	 * The delay at each breakpoint, in seconds.
+	 */
+	private final float[] delays;
+
+	/**
+	 * Initialize a new delay profile with the given breakpoints.
+	 *
+	 * @param times
+	 * 		The time of day of each breakpoint, in seconds
+	 * @param delays
+	 * 		The delay at each breakpoint, in seconds
+	 * @throws NullPointerException
+	 * 		One of the given arrays is null
+	 * 	|	times == null || delays == null
+	 * @throws IllegalArgumentException
+	 * 		The given breakpoints are not valid breakpoints for a profile
+	 * 	|	!isValidBreakpoints(times, delays)
+	 * @post The breakpoints of this profile are equal to the given breakpoints
+	 * 	|	Arrays.equals(new.getBreakpointTimes(), times) && Arrays.equals(new.getBreakpointDelays(), delays)
+	 */
+	public DelayProfile(float[] times, float[] delays) throws NullPointerException, IllegalArgumentException {
+		if (times == null || delays == null)
+			throw new NullPointerException();
+		if (!isValidBreakpoints(times, delays))
+			throw new IllegalArgumentException();
+		this.times = times.clone();
+		this.delays = delays.clone();
+	}
+
+	/**
+	 * Checks whether the given breakpoints are valid breakpoints for a profile.
+	 *
+	 * @param times The time of day of each breakpoint
+	 * @param delays The delay at each breakpoint
+	 * @return True if and only if there is at least one breakpoint, there are as many delays as times, the times are
+	 * 			strictly increasing and lie within one period, every delay is finite and not negative, and the delay drops
+	 * 			no faster than time passes between any two consecutive breakpoints, including the last and the first.
+	 * 	|	result == (times.length > 0 && times.length == delays.length &&
+	 * 	|		for each i in 0..times.length-1: 0 <= times[i] < PERIOD && 0 <= delays[i] < infinity &&
+	 * 	|			(i == 0 || times[i-1] < times[i]) &&
+	 * 	|		for each i in 0..times.length-1:
+	 * 	|			delays[(i+1) % times.length] - delays[i] >= -(times[(i+1) % times.length] - times[i]) mod PERIOD)
+	 */
+	public static boolean isValidBreakpoints(float[] times, float[] delays) {
+		if (times.length == 0 || times.length != delays.length)
+			return false;
+		for (int index = 0; index < times.length; index++) {
+			if (!(times[index] >= 0.0F && times[index] < PERIOD))
+				return false;
+			if (!(delays[index] >= 0.0F && delays[index] < Float.POSITIVE_INFINITY))
+				return false;
+			if (index > 0 && !(times[index - 1] < times[index]))
+				return false;
+		}
+		for (int index = 0; index < times.length; index++) {
+			int next = (index + 1) % times.length;
+			float gap = times[next] - times[index];
+			if (next <= index)
+				gap += PERIOD;
+			if (delays[next] - delays[index] < -gap)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the time of day of each breakpoint of this profile, in seconds.
+	 */
+	@Basic
+	@Immutable
+	public float[] getBreakpointTimes() {
+		return times.clone();
+	}
+
+	/**
+	 * Returns the delay at each breakpoint of this profile, in seconds.
+	 */
+	@Basic
+	@Immutable
+	public float[] getBreakpointDelays() {
+		return delays.clone();
+	}
+
+	/**
+	 * Returns the delay of this profile at the given time.
+	 *
+	 * @param time The time in seconds since the start of the first day, which may lie on any later day
+	 * @return The delay interpolated linearly between the breakpoints before and after the given time of day.
+	 * 	|	let t = time mod PERIOD, i = the last breakpoint at or before t (wrapping to the last breakpoint of the day
+	 * 	|		before), j = the breakpoint after i (wrapping to the first breakpoint of the next day) in
+	 * 	|	result == delays[i] + (delays[j] - delays[i]) * (t - times[i]) / (times[j] - times[i])
+	 */
+	public float getDelay(float time) {
+		float timeOfDay = time % PERIOD;
+		if (timeOfDay < 0.0F)
+			timeOfDay += PERIOD;
+		if (times.length == 1)
+			return delays[0];
+		int low = 0;
+		int high = times.length - 1;
+		int before = -1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (times[middle] <= timeOfDay) {
+				before = middle;
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		if (before < 0) {
+			before = times.length - 1;
+			timeOfDay += PERIOD;
+		}
+		int after = (before + 1) % times.length;
+		float afterTime = times[after];
+		if (after <= before)
+			afterTime += PERIOD;
+		float fraction = (timeOfDay - times[before]) / (afterTime - times[before]);
+		return delays[before] + (delays[after] - delays[before]) * fraction;
+	}
+}
@@ -0,0 +1,60 @@
+package connections;
+
+import java.util.Arrays;
+
+/**
+ * A class of pools handing out dense int indices. An index is handed out to one holder at a time, and released indices
+ * are handed out again before any new index, so the indices in use stay below a bound close to the largest number of
+ * holders alive at once. Arrays indexed by these indices therefore stay small and need no hashing. A pool can be
+ * shared by several threads.
+ *
+ * @author Michiel Van der Haegen
+ * @author Sam Haberman
+ */
+class IndexPool {
+
+	/**
+	 * The number of indices handed out at least once.
+	 */
+	private int bound = 0;
+
+	/**
+	 * The released indices, of which the last one is handed out first.
+	 */
+	private int[] freeIndices = new int[16];
+
+	/**
+	 * The number of released indices.
+	 */
+	private int freeCount = 0;
+
+	/**
+	 * Hands out an index not in use.
+	 *
+	 * @return A released index if there is one, otherwise the bound of this pool, which then grows by one.
+	 * 	|	0 <= result && result < new.getBound()
+	 */
+	synchronized int acquire() {
+		if (freeCount > 0)
+			return freeIndices[--freeCount];
+		return bound++;
+	}
+
+	/**
+	 * Releases the given index, so that it can be handed out again.
+	 *
+	 * @param index The index to release, which must be in use
+	 */
+	synchronized void release(int index) {
+		if (freeCount == freeIndices.length)
+			freeIndices = Arrays.copyOf(freeIndices, 2 * freeCount);
+		freeIndices[freeCount++] = index;
+	}
+
+	/**
+	 * Returns a bound on every index handed out by this pool.
+	 */
+	synchronized int getBound() {
+		return bound;
+	}
+}
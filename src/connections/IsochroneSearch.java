@@ -0,0 +1,225 @@
+package connections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A class of isochrone searches, which find every location that can be reached from a start location within a given
+ * travel time budget. The search respects the direction of one-way and alternating roads and skips blocked roads, and
+ * it stops as soon as the next location lies beyond the budget. Its heap and travel time labels are allocated once
+ * and reset after every search, so that a search does not allocate anything but its result.
+ *
+ * The searches of one search object run one at a time: concurrent callers of the same object wait for each other, and
+ * callers that need to search in parallel each need their own object.
+ *
+ * @author Michiel Van der Haegen
+ * @author Sam Haberman
+ */
+public class IsochroneSearch {
+
+	/**
+	 * The indexed road network this search runs on.
+	 */
+	private RoadGraph graph;
+
+	/**
+	 * The heap of locations that still have to be settled.
+	 */
+	private LocationHeap heap;
+
+	/**
+	 * The travel time at which each location was reached, infinite if it was not reached by the current search.
+	 */
+	private float[] times;
+
+	/**
+	 * The indices of the locations reached by the current search, in the order they were first reached.
+	 */
+	private int[] touched;
+
+	/**
+	 * The number of locations reached by the current search.
+	 */
+	private int touchedCount = 0;
+
+	/**
+	 * The largest number of shared searches kept at once.
+	 */
+	private static final int MAX_SHARED_SEARCHES = 8;
+
+	/**
+	 * The searches shared by the callers that do not keep a search of their own, one for each road network asked for,
+	 * from the most to the least recently used.
+	 */
+	private static final ArrayList<IsochroneSearch> sharedSearches = new ArrayList<>();
+
+	/**
+	 * Initialize a new isochrone search on the road network consisting of the given locations and every location
+	 * connected to them through a chain of adjoining roads.
+	 *
+	 * @param locations
+	 * 		The locations of the network
+	 * @throws NullPointerException
+	 * 		The given collection is null or contains null
+	 * 	|	locations == null || locations.contains(null)
+	 */
+	public IsochroneSearch(Collection<Location> locations) throws NullPointerException {
+		build(new RoadGraph(locations));
+	}
+
+	/**
+	 * Returns the isochrone search shared by the callers that do not keep a search of their own, on the road network
+	 * of the given location. A shared search is kept for each network asked for, and rebuilt in place when roads are
+	 * created, terminated or swapped, so callers alternating between networks do not index them again. Only the most
+	 * recently used searches are kept, up to a fixed number, so the road networks that are no longer asked for can be
+	 * garbage collected.
+	 *
+	 * @param location
+	 * 		A location of the network to search
+	 * @throws NullPointerException
+	 * 		The given location is null
+	 * 	|	location == null
+	 * @throws IllegalArgumentException
+	 * 		The given location is terminated
+	 * 	|	location.isTerminated()
+	 */
+	public static synchronized IsochroneSearch getSharedSearch(Location location)
+			throws NullPointerException, IllegalArgumentException {
+		if (location == null)
+			throw new NullPointerException();
+		if (location.isTerminated())
+			throw new IllegalArgumentException();
+		IsochroneSearch result = null;
+		for (int position = 0; position < sharedSearches.size() && result == null; position++) {
+			if (sharedSearches.get(position).covers(location))
+				result = sharedSearches.remove(position);
+		}
+		if (result == null)
+			result = new IsochroneSearch(Collections.singletonList(location));
+		sharedSearches.add(0, result);
+		if (sharedSearches.size() > MAX_SHARED_SEARCHES)
+			sharedSearches.remove(sharedSearches.size() - 1);
+		return result;
+	}
+
+	/**
+	 * Checks whether the given location is part of the road network of this search, after rebuilding it if it is no
+	 * longer up to date. A location that only joined the network through a road created since the last build is not
+	 * recognised, and gets a search of its own.
+	 *
+	 * @param location The location to check
+	 */
+	private synchronized boolean covers(Location location) {
+		if (!graph.hasAsLocation(location))
+			return false;
+		if (!isUpToDate())
+			rebuild();
+		return graph.hasAsLocation(location);
+	}
+
+	/**
+	 * Checks whether the road network of this search still has the roads it was built with.
+	 */
+	public synchronized boolean isUpToDate() {
+		return !graph.isOutdated();
+	}
+
+	/**
+	 * Indexes the road network of this search again from the current roads.
+	 *
+	 * @post The search is up to date
+	 * 	|	new.isUpToDate()
+	 */
+	public synchronized void rebuild() {
+		build(graph.rebuild());
+	}
+
+	/**
+	 * Allocates the heap and labels of this search for the locations of the given road graph.
+	 *
+	 * @param graph The road graph to search
+	 */
+	private void build(RoadGraph graph) {
+		this.graph = graph;
+		heap = new LocationHeap(graph.getLocationCount());
+		times = new float[graph.getLocationCount()];
+		touched = new int[graph.getLocationCount()];
+		touchedCount = 0;
+		Arrays.fill(times, Float.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Returns every location that can be reached from the given start location within the given travel time budget,
+	 * mapped onto the travel time of the fastest route to it given the current delays and blocks. The search is
+	 * rebuilt first if it is no longer up to date.
+	 *
+	 * @param start
+	 * 		The location to start from
+	 * @param budget
+	 * 		The largest travel time allowed, in seconds
+	 * @throws NullPointerException
+	 * 		The given start location is null
+	 * 	|	start == null
+	 * @throws IllegalArgumentException
+	 * 		The given start location is terminated or not part of the network of this search, or the given budget is
+	 * 		negative or not a number
+	 * 	|	start.isTerminated() || !(budget >= 0)
+	 * @return A map containing the start location with travel time 0 and each other location whose fastest route from
+	 * 			the start location takes no longer than the budget, with the travel time of that route.
+	 * 	|	for each location in result.keySet():
+	 * 	|		result.get(location) <= budget &&
+	 * 	|		result.get(location) == total travel time of new RoutePlanner().findFastestRoute(start, location)
+	 */
+	public synchronized Map<Location, Float> findReachableLocations(Location start, float budget)
+			throws NullPointerException, IllegalArgumentException {
+		if (start == null)
+			throw new NullPointerException();
+		if (start.isTerminated() || !(budget >= 0))
+			throw new IllegalArgumentException();
+		if (!isUpToDate())
+			rebuild();
+		else
+			graph = graph.withCurrentTravelTimes();
+		int source = graph.getIndex(start);
+		HashMap<Location, Float> result = new HashMap<>();
+		try {
+			times[source] = 0.0F;
+			touched[touchedCount++] = source;
+			heap.push(source, 0.0F);
+			while (!heap.isEmpty()) {
+				float time = heap.peekKey();
+				int index = heap.pop();
+				result.put(graph.getLocation(index), time);
+				for (int arc = graph.getFirstLeavingArc(index); arc < graph.getFirstLeavingArc(index + 1); arc++) {
+					float nextTime = time + graph.getTravelTime(arc);
+					if (nextTime > budget)
+						continue;
+					int next = graph.getHead(arc);
+					if (nextTime < times[next]) {
+						if (times[next] == Float.POSITIVE_INFINITY)
+							touched[touchedCount++] = next;
+						times[next] = nextTime;
+						heap.push(next, nextTime);
+					}
+				}
+			}
+		} finally {
+			reset();
+		}
+		return result;
+	}
+
+	/**
+	 * Clears the labels and the heap of the last search.
+	 */
+	private void reset() {
+		for (int position = 0; position < touchedCount; position++)
+			times[touched[position]] = Float.POSITIVE_INFINITY;
+		touchedCount = 0;
+		heap.clear();
+	}
+}
@@ -0,0 +1,477 @@
+package connections;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * A class of landmark indexes, which speed up fastest route queries with lower bounds derived from the travel times
+ * to and from a few landmark locations (A*, landmarks and the triangle inequality). For every landmark the index
+ * stores the travel time from the landmark to every location and from every location to the landmark. Because no
+ * route can be faster than its detour via a landmark allows, these tables bound the remaining travel time from below.
+ *
+ * The tables are computed with free-flow travel times, the length of each road divided by its average speed,
+ * disregarding delays and blocks. Delays and blocks can only make routes slower, so the bounds stay valid while they
+ * change. A shorter or faster road can make the bounds too large, so a change of the length or average speed of any
+ * road, like a topology change, makes the index rebuild itself before the next query. A saved index records the roads
+ * it was computed on and is only loaded again if they are unchanged. An index reuses its search arrays between queries
+ * and is therefore not meant to be queried from several threads at once.
+ *
+ * @author Michiel Van der Haegen
+ * @author Sam Haberman
+ */
+public class LandmarkIndex {
+
+	/**
+	 * Number identifying files written by a landmark index.
+	 */
+	private static final int FILE_SIGNATURE = 0x4C4D4B32;
+
+	/**
+	 * The number of landmarks this index uses.
+	 */
+	private final int landmarkCount;
+
+	/**
+	 * The indexed road network this index was built on.
+	 */
+	private RoadGraph graph;
+
+	/**
+	 * The index of each landmark location in the road graph.
+	 */
+	private int[] landmarks;
+
+	/**
+	 * For each landmark, the free-flow travel time from the landmark to each location.
+	 */
+	private float[][] fromLandmark;
+
+	/**
+	 * For each landmark, the free-flow travel time from each location to the landmark.
+	 */
+	private float[][] toLandmark;
+
+	/**
+	 * The free-flow version of the roads at the time the tables of this index were computed.
+	 */
+	private long freeFlowVersion;
+
+	/**
+	 * The travel time at which the last query reached each location, infinite if it did not reach it.
+	 */
+	private float[] times;
+
+	/**
+	 * The arc over which the last query reached each location.
+	 */
+	private int[] reachedBy;
+
+	/**
+	 * The indices of the locations reached by the last query.
+	 */
+	private int[] touched;
+
+	/**
+	 * The number of locations reached by the last query.
+	 */
+	private int touchedCount = 0;
+
+	/**
+	 * The heap of locations that a search of this index still has to settle.
+	 */
+	private LocationHeap heap;
+
+	/**
+	 * Initialize a new landmark index with the given number of landmarks on the road network consisting of the given
+	 * locations and every location connected to them through a chain of adjoining roads.
+	 *
+	 * @param locations
+	 * 		The locations of the network
+	 * @param landmarkCount
+	 * 		The number of landmarks to select
+	 * @throws NullPointerException
+	 * 		The given collection is null or contains null
+	 * 	|	locations == null || locations.contains(null)
+	 * @throws IllegalArgumentException
+	 * 		The given number of landmarks is not positive
+	 * 	|	landmarkCount <= 0
+	 */
+	public LandmarkIndex(Collection<Location> locations, int landmarkCount) throws NullPointerException, IllegalArgumentException {
+		if (landmarkCount <= 0)
+			throw new IllegalArgumentException();
+		this.landmarkCount = landmarkCount;
+		build(new RoadGraph(locations));
+	}
+
+	/**
+	 * Initialize a new landmark index on the given road graph with the given landmarks and tables.
+	 *
+	 * @param graph The road graph of the network
+	 * @param landmarks The index of each landmark in the road graph
+	 * @param fromLandmark The travel times from each landmark
+	 * @param toLandmark The travel times to each landmark
+	 */
+	private LandmarkIndex(RoadGraph graph, int[] landmarks, float[][] fromLandmark, float[][] toLandmark) {
+		this.landmarkCount = landmarks.length;
+		this.graph = graph;
+		this.landmarks = landmarks;
+		this.fromLandmark = fromLandmark;
+		this.toLandmark = toLandmark;
+		this.freeFlowVersion = Road.getFreeFlowVersion();
+		allocateSearch();
+	}
+
+	/**
+	 * Returns the landmark locations of this index.
+	 */
+	public Location[] getLandmarks() {
+		Location[] result = new Location[landmarks.length];
+		for (int position = 0; position < landmarks.length; position++)
+			result[position] = graph.getLocation(landmarks[position]);
+		return result;
+	}
+
+	/**
+	 * Checks whether this index still reflects the topology and the free-flow travel times of the road network.
+	 *
+	 * @return False if a road was created, terminated or swapped, or the length or average speed of a road changed,
+	 * 			since this index was last built.
+	 * 	|	result == (Road.getTopologyVersion() and Road.getFreeFlowVersion() did not change since the last build)
+	 */
+	public boolean isUpToDate() {
+		return !graph.isOutdated() && freeFlowVersion == Road.getFreeFlowVersion();
+	}
+
+	/**
+	 * Selects the landmarks again and recomputes their tables from the current roads.
+	 *
+	 * @post The index is up to date
+	 * 	|	new.isUpToDate()
+	 */
+	public void rebuild() {
+		build(graph.rebuild());
+	}
+
+	/**
+	 * Selects the landmarks of the given road graph and computes their tables.
+	 *
+	 * @param graph The road graph to build this index on
+	 */
+	private void build(RoadGraph graph) {
+		this.graph = graph;
+		freeFlowVersion = Road.getFreeFlowVersion();
+		allocateSearch();
+		int count = Math.min(landmarkCount, graph.getLocationCount());
+		landmarks = new int[count];
+		fromLandmark = new float[count][];
+		toLandmark = new float[count][];
+		if (count == 0)
+			return;
+		float[] closest = new float[graph.getLocationCount()];
+		Arrays.fill(closest, Float.POSITIVE_INFINITY);
+		int candidate = farthestFrom(freeFlowTimes(0, true), freeFlowTimes(0, false));
+		for (int position = 0; position < count; position++) {
+			landmarks[position] = candidate;
+			fromLandmark[position] = freeFlowTimes(candidate, true);
+			toLandmark[position] = freeFlowTimes(candidate, false);
+			for (int index = 0; index < closest.length; index++)
+				closest[index] = Math.min(closest[index], Math.min(fromLandmark[position][index], toLandmark[position][index]));
+			candidate = farthestFrom(closest, closest);
+		}
+	}
+
+	/**
+	 * Allocates the search arrays of this index for the locations of its road graph.
+	 */
+	private void allocateSearch() {
+		times = new float[graph.getLocationCount()];
+		reachedBy = new int[graph.getLocationCount()];
+		touched = new int[graph.getLocationCount()];
+		touchedCount = 0;
+		heap = new LocationHeap(graph.getLocationCount());
+		Arrays.fill(times, Float.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Returns the location that is farthest away according to the given travel times, where unreachable locations are
+	 * farthest of all.
+	 *
+	 * @param forwardTimes Travel times towards each location
+	 * @param backwardTimes Travel times from each location
+	 * @return The index of the location with the largest smallest travel time.
+	 */
+	private static int farthestFrom(float[] forwardTimes, float[] backwardTimes) {
+		int farthest = 0;
+		float distance = -1.0F;
+		for (int index = 0; index < forwardTimes.length; index++) {
+			float candidate = Math.min(forwardTimes[index], backwardTimes[index]);
+			if (candidate > distance) {
+				distance = candidate;
+				farthest = index;
+			}
+		}
+		return farthest;
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm with free-flow travel times from the given location over all arcs of the road graph.
+	 *
+	 * @param start The index of the location to start from
+	 * @param forward True to compute travel times from the location, false to compute travel times to the location
+	 * @return The free-flow travel time between the start location and each location, infinite if there is no route.
+	 */
+	private float[] freeFlowTimes(int start, boolean forward) {
+		float[] times = new float[graph.getLocationCount()];
+		Arrays.fill(times, Float.POSITIVE_INFINITY);
+		times[start] = 0.0F;
+		heap.push(start, 0.0F);
+		while (!heap.isEmpty()) {
+			float time = heap.peekKey();
+			int index = heap.pop();
+			int first = forward ? graph.getFirstLeavingArc(index) : graph.getFirstArrivingPosition(index);
+			int last = forward ? graph.getFirstLeavingArc(index + 1) : graph.getFirstArrivingPosition(index + 1);
+			for (int position = first; position < last; position++) {
+				int arc = forward ? position : graph.getArrivingArc(position);
+				Road road = graph.getRoad(arc);
+				int next = forward ? graph.getHead(arc) : graph.getTail(arc);
+				float nextTime = time + graph.getLength(arc) / road.getRoadSpeed();
+				if (nextTime < times[next]) {
+					times[next] = nextTime;
+					heap.push(next, nextTime);
+				}
+			}
+		}
+		return times;
+	}
+
+	/**
+	 * Returns a lower bound on the travel time from the location at the first given index to the location at the
+	 * second given index.
+	 *
+	 * @param from The index of the location to travel from
+	 * @param to The index of the location to travel to
+	 * @return The largest bound the triangle inequality gives over all landmarks, or zero if no landmark gives one.
+	 * 	|	result == max over all landmarks l of
+	 * 	|		max(fromLandmark[l][to] - fromLandmark[l][from], toLandmark[l][from] - toLandmark[l][to], 0)
+	 */
+	float lowerBound(int from, int to) {
+		float bound = 0.0F;
+		for (int position = 0; position < landmarks.length; position++) {
+			float[] fromTimes = fromLandmark[position];
+			float[] toTimes = toLandmark[position];
+			if (fromTimes[to] != Float.POSITIVE_INFINITY && fromTimes[from] != Float.POSITIVE_INFINITY)
+				bound = Math.max(bound, fromTimes[to] - fromTimes[from]);
+			if (toTimes[from] != Float.POSITIVE_INFINITY && toTimes[to] != Float.POSITIVE_INFINITY)
+				bound = Math.max(bound, toTimes[from] - toTimes[to]);
+		}
+		return bound;
+	}
+
+	/**
+	 * Returns the fastest route from the given origin to the given destination, found with an A* search that uses the
+	 * landmark bounds as estimate of the remaining travel time. The index is rebuilt first if it is no longer up to date,
+	 * so the bounds never exceed the free-flow travel times of the current roads.
+	 *
+	 * @param origin
+	 * 		The location the route has to start in
+	 * @param destination
+	 * 		The location the route has to end in
+	 * @throws NullPointerException
+	 * 		The given origin or destination is null
+	 * 	|	origin == null || destination == null
+	 * @throws IllegalArgumentException
+	 * 		The given origin or destination is terminated or not part of the network of this index
+	 * @return Null if the destination cannot be reached from the origin, otherwise the route with the smallest total
+	 * 			travel time given the current delays and blocks.
+	 * 	|	result == null || (result.getStartLocations()[0] == origin && result.getEndLocation() == destination)
+	 */
+	public Route findFastestRoute(Location origin, Location destination) throws NullPointerException, IllegalArgumentException {
+		if (origin == null || destination == null)
+			throw new NullPointerException();
+		if (origin.isTerminated() || destination.isTerminated())
+			throw new IllegalArgumentException();
+		if (!isUpToDate())
+			rebuild();
+		else
+			graph = graph.withCurrentTravelTimes();
+		int source = graph.getIndex(origin);
+		int target = graph.getIndex(destination);
+		for (int position = 0; position < touchedCount; position++)
+			times[touched[position]] = Float.POSITIVE_INFINITY;
+		touchedCount = 0;
+		heap.clear();
+		times[source] = 0.0F;
+		touched[touchedCount++] = source;
+		heap.push(source, lowerBound(source, target));
+		while (!heap.isEmpty()) {
+			int index = heap.pop();
+			float entryTime = times[index];
+			if (index == target) {
+				int arcCount = 0;
+				for (int tracker = target; tracker != source; tracker = graph.getTail(reachedBy[tracker]))
+					arcCount++;
+				int[] path = new int[arcCount];
+				for (int tracker = target; tracker != source; tracker = graph.getTail(reachedBy[tracker]))
+					path[--arcCount] = reachedBy[tracker];
+				return graph.buildRoute(origin, path);
+			}
+			for (int arc = graph.getFirstLeavingArc(index); arc < graph.getFirstLeavingArc(index + 1); arc++) {
+				float arcTime = graph.getTravelTime(arc);
+				if (arcTime == Float.POSITIVE_INFINITY)
+					continue;
+				int next = graph.getHead(arc);
+				float time = entryTime + arcTime;
+				if (time < times[next]) {
+					if (times[next] == Float.POSITIVE_INFINITY)
+						touched[touchedCount++] = next;
+					times[next] = time;
+					reachedBy[next] = arc;
+					heap.push(next, time + lowerBound(next, target));
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Writes the landmarks and tables of this index to the given file, so they can be loaded again without
+	 * recomputing them. Every location is written with its coordinate and address to recognise it when loading, and
+	 * every arc with its road ID, length and average speed, so that a file no longer matching the roads is rejected.
+	 *
+	 * @param file
+	 * 		The file to write to
+	 * @throws IOException
+	 * 		The file could not be written
+	 */
+	public void save(File file) throws IOException {
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			output.writeInt(FILE_SIGNATURE);
+			output.writeInt(graph.getLocationCount());
+			for (int index = 0; index < graph.getLocationCount(); index++) {
+				Location location = graph.getLocation(index);
+				double[] coordinate = location.getCoordinate();
+				output.writeDouble(coordinate[0]);
+				output.writeDouble(coordinate[1]);
+				output.writeUTF(location.getAddress());
+			}
+			output.writeInt(graph.getArcCount());
+			for (int arc = 0; arc < graph.getArcCount(); arc++) {
+				output.writeInt(graph.getTail(arc));
+				output.writeInt(graph.getHead(arc));
+				output.writeUTF(graph.getRoad(arc).getID());
+				output.writeInt(graph.getLength(arc));
+				output.writeFloat(graph.getRoad(arc).getRoadSpeed());
+			}
+			output.writeInt(landmarks.length);
+			for (int position = 0; position < landmarks.length; position++) {
+				output.writeInt(landmarks[position]);
+				for (int index = 0; index < graph.getLocationCount(); index++) {
+					output.writeFloat(fromLandmark[position][index]);
+					output.writeFloat(toLandmark[position][index]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns a landmark index on the road network consisting of the given locations and every location connected to
+	 * them, with the landmarks and tables read from the given file.
+	 *
+	 * @param file
+	 * 		The file to read from, written by a landmark index on the same network
+	 * @param locations
+	 * 		The locations of the network
+	 * @throws IOException
+	 * 		The file could not be read, was not written by a landmark index, or describes different locations than the
+	 * 		network, which are recognised by their coordinate and address and must therefore differ in one of both
+	 * @throws IOException
+	 * 		The file describes different roads than the network: a road was added, removed or swapped, or the ID,
+	 * 		length or average speed of a road changed since the file was written, so its bounds may no longer be valid
+	 * @throws NullPointerException
+	 * 		The given collection is null or contains null
+	 * 	|	locations == null || locations.contains(null)
+	 */
+	public static LandmarkIndex load(File file, Collection<Location> locations) throws IOException, NullPointerException {
+		RoadGraph graph = new RoadGraph(locations);
+		HashMap<String, Integer> indices = new HashMap<>();
+		for (int index = 0; index < graph.getLocationCount(); index++) {
+			Location location = graph.getLocation(index);
+			double[] coordinate = location.getCoordinate();
+			if (indices.put(locationKey(coordinate[0], coordinate[1], location.getAddress()), index) != null)
+				throw new IOException();
+		}
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (input.readInt() != FILE_SIGNATURE || input.readInt() != graph.getLocationCount())
+				throw new IOException();
+			int[] mapping = new int[graph.getLocationCount()];
+			for (int stored = 0; stored < mapping.length; stored++) {
+				double longitude = input.readDouble();
+				double latitude = input.readDouble();
+				Integer index = indices.get(locationKey(longitude, latitude, input.readUTF()));
+				if (index == null)
+					throw new IOException();
+				mapping[stored] = index;
+			}
+			HashMap<String, Integer> arcs = new HashMap<>();
+			for (int arc = 0; arc < graph.getArcCount(); arc++)
+				arcs.merge(arcKey(graph.getTail(arc), graph.getHead(arc), graph.getRoad(arc).getID(), graph.getLength(arc),
+						graph.getRoad(arc).getRoadSpeed()), 1, Integer::sum);
+			if (input.readInt() != graph.getArcCount())
+				throw new IOException();
+			for (int stored = 0; stored < graph.getArcCount(); stored++) {
+				int tail = mapping[input.readInt()];
+				int head = mapping[input.readInt()];
+				String key = arcKey(tail, head, input.readUTF(), input.readInt(), input.readFloat());
+				Integer remaining = arcs.get(key);
+				if (remaining == null || remaining == 0)
+					throw new IOException();
+				arcs.put(key, remaining - 1);
+			}
+			int count = input.readInt();
+			int[] landmarks = new int[count];
+			float[][] fromLandmark = new float[count][mapping.length];
+			float[][] toLandmark = new float[count][mapping.length];
+			for (int position = 0; position < count; position++) {
+				landmarks[position] = mapping[input.readInt()];
+				for (int stored = 0; stored < mapping.length; stored++) {
+					fromLandmark[position][mapping[stored]] = input.readFloat();
+					toLandmark[position][mapping[stored]] = input.readFloat();
+				}
+			}
+			return new LandmarkIndex(graph, landmarks, fromLandmark, toLandmark);
+		}
+	}
+
+	/**
+	 * Returns the key by which a location with the given coordinate and address is recognised in a file.
+	 *
+	 * @param longitude The first coordinate of the location
+	 * @param latitude The second coordinate of the location
+	 * @param address The address of the location
+	 */
+	private static String locationKey(double longitude, double latitude, String address) {
+		return longitude + "," + latitude + "," + address;
+	}
+
+	/**
+	 * Returns the key by which an arc with the given properties is recognised in a file.
+	 *
+	 * @param tail The index of the location the arc leaves from
+	 * @param head The index of the location the arc arrives at
+	 * @param ID The ID of the road of the arc
+	 * @param length The length of the road of the arc
+	 * @param roadSpeed The average speed of the road of the arc
+	 */
+	private static String arcKey(int tail, int head, String ID, int length, float roadSpeed) {
+		return tail + "," + head + "," + ID + "," + length + "," + Float.floatToIntBits(roadSpeed);
+	}
+}
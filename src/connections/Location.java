@@ -54,6 +54,17 @@ public class Location {
 	 */
 	private final Set<Road> roadMap = new HashSet<>();
 
+	/**
+	 * The pool handing out the dense indices of all locations.
+	 */
+	private static final IndexPool indexPool = new IndexPool();
+
+	/**
+	 * Variable registering the dense index of this location, -1 once it is terminated. The index is only acquired once
+	 * the constructor has succeeded, so a location that fails to be created does not hold on to one.
+	 */
+	private int index = -1;
+
 	/**
 	 * Initialize a new Location that is not terminated, with given Address, and set of Longitude and Latitude coordinates
 	 *
@@ -72,6 +83,7 @@ public class Location {
 		assert canHaveAsCoordinate(coordinate);
 		this.coordinate = coordinate.clone();
 		this.setAddress(address);
+		this.index = indexPool.acquire();
 	}
 
 	/**
@@ -135,6 +147,24 @@ public class Location {
 		return clone;
 	}
 
+	/**
+	 * Return the longitude of this location, the first value of its coordinate.
+	 */
+	@Basic
+	@Immutable
+	public double getLongitude() {
+		return this.coordinate[0];
+	}
+
+	/**
+	 * Return the latitude of this location, the second value of its coordinate.
+	 */
+	@Basic
+	@Immutable
+	public double getLatitude() {
+		return this.coordinate[1];
+	}
+
 	/**
 	 * Checks to see if the given coordinate is valid.
 	 * @param coordinate The coordinate to check
@@ -164,6 +194,27 @@ public class Location {
 		return true;
 	}
 
+	/**
+	 * Returns the dense index of this location. No two non-terminated locations have the same index, and the index of
+	 * a terminated location is handed out again to a new location, so the indices of all non-terminated locations stay
+	 * below a bound close to their number.
+	 *
+	 * @return -1 if this location is terminated, otherwise an index below the index bound.
+	 * 		| if (isTerminated()) result == -1
+	 * 		| else 0 <= result && result < getIndexBound()
+	 */
+	public int getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * Returns a bound on the dense index of every non-terminated location, the size an array needs to hold a value
+	 * for each of them.
+	 */
+	public static int getIndexBound() {
+		return indexPool.getBound();
+	}
+
 	/**
 	 * Checks if this location is terminated.
 	 * 
@@ -184,6 +235,8 @@ public class Location {
 	 * @post The roadMap is cleared.
 	 * 		| for each road in roadMap:
 	 * 		| roadMap.contains(road)==false
+	 * @post The index of this location is released.
+	 * 		| new.getIndex() == -1
 	 */
 	public void terminate(){
 		if(!this.isTerminated) {
@@ -194,6 +247,8 @@ public class Location {
 				road.terminate();
 			}
 			roadMap.clear();
+			indexPool.release(index);
+			index = -1;
 		}
 	}
 
@@ -238,6 +293,35 @@ public class Location {
 		return cloneSet;
 	}
 	
+	/**
+	 * Returns all the adjoining roads that can be driven starting from this location.
+	 * @return The set of adjoining roads that are traversable from this location
+	 * 		| result == { road in roadMap | road.isTraversableFrom(this) }
+	 */
+	public Set<Road> getLeavingRoads() {
+		HashSet<Road> leavingSet = new HashSet<>();
+		for (Road road : roadMap) {
+			if (road.isTraversableFrom(this))
+				leavingSet.add(road);
+		}
+		return leavingSet;
+	}
+
+	/**
+	 * Returns all the adjoining roads that can be driven to arrive at this location, which is the reverse view of the
+	 * leaving roads of the other locations.
+	 * @return The set of adjoining roads that are traversable from their opposite endpoint towards this location
+	 * 		| result == { road in roadMap | road.isTraversableFrom(road.getOppositeEndPoint(this)) }
+	 */
+	public Set<Road> getArrivingRoads() {
+		HashSet<Road> arrivingSet = new HashSet<>();
+		for (Road road : roadMap) {
+			if (road.isTraversableFrom(road.getOppositeEndPoint(this)))
+				arrivingSet.add(road);
+		}
+		return arrivingSet;
+	}
+
 	/**
 	 * Adds an adjoining road to the given location
 	 * @param road the Road to add to the given location
@@ -269,10 +353,10 @@ public class Location {
 
 	/**
 	 * Returns a string representative of the Location saying "this location " + this.getAddress() + "has the following coordinates: " +
-	 * this.getCoordinate()[0] + this.getCoordinate()[1]
+	 * this.getLongitude() + this.getLatitude()
 	 */
 	@Override
 	public String toString() {
-		return "This location, "+this.getAddress()+" has the following coordinates: "+this.getCoordinate()[0]+", "+this.getCoordinate()[1];
+		return "This location, "+this.getAddress()+" has the following coordinates: "+this.getLongitude()+", "+this.getLatitude();
 	}
 }
@@ -0,0 +1,148 @@
+package connections;
+
+import java.util.Arrays;
+
+/**
+ * A class of indexed binary min-heaps holding location indices ordered by a travel time. Each index is held at most
+ * once, and its travel time can be lowered in place. All arrays are allocated once, so a heap can be emptied and
+ * reused by search after search without allocating.
+ *
+ * @author Michiel Van der Haegen
+ * @author Sam Haberman
+ */
+class LocationHeap {
+
+	/**
+	 * The location indices in heap order.
+	 */
+	private final int[] heap;
+
+	/**
+	 * The position of each location index in the heap, or -1 if it is not in the heap.
+	 */
+	private final int[] positions;
+
+	/**
+	 * The travel time of each location index in the heap.
+	 */
+	private final float[] keys;
+
+	/**
+	 * The number of location indices in the heap.
+	 */
+	private int size = 0;
+
+	/**
+	 * Initialize a new empty heap for location indices below the given capacity.
+	 *
+	 * @param capacity The number of location indices the heap can hold
+	 */
+	LocationHeap(int capacity) {
+		this.heap = new int[capacity];
+		this.positions = new int[capacity];
+		this.keys = new float[capacity];
+		Arrays.fill(positions, -1);
+	}
+
+	/**
+	 * Checks whether this heap holds no location indices.
+	 */
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the smallest travel time in this heap.
+	 */
+	float peekKey() {
+		return keys[heap[0]];
+	}
+
+	/**
+	 * Removes all location indices from this heap.
+	 */
+	void clear() {
+		for (int position = 0; position < size; position++)
+			positions[heap[position]] = -1;
+		size = 0;
+	}
+
+	/**
+	 * Adds the given location index with the given travel time, or lowers its travel time if it is already in the
+	 * heap with a larger one.
+	 *
+	 * @param index The location index
+	 * @param key The travel time of the location
+	 */
+	void push(int index, float key) {
+		int position = positions[index];
+		if (position < 0) {
+			position = size++;
+			heap[position] = index;
+			positions[index] = position;
+			keys[index] = key;
+		} else if (key < keys[index]) {
+			keys[index] = key;
+		} else {
+			return;
+		}
+		siftUp(position);
+	}
+
+	/**
+	 * Removes and returns the location index with the smallest travel time.
+	 */
+	int pop() {
+		int index = heap[0];
+		positions[index] = -1;
+		size--;
+		if (size > 0) {
+			heap[0] = heap[size];
+			positions[heap[0]] = 0;
+			siftDown(0);
+		}
+		return index;
+	}
+
+	/**
+	 * Moves the location index at the given position up until its parent is not larger.
+	 *
+	 * @param position The position to move from
+	 */
+	private void siftUp(int position) {
+		int index = heap[position];
+		while (position > 0) {
+			int parent = (position - 1) / 2;
+			if (keys[heap[parent]] <= keys[index])
+				break;
+			heap[position] = heap[parent];
+			positions[heap[position]] = position;
+			position = parent;
+		}
+		heap[position] = index;
+		positions[index] = position;
+	}
+
+	/**
+	 * Moves the location index at the given position down until none of its children is smaller.
+	 *
+	 * @param position The position to move from
+	 */
+	private void siftDown(int position) {
+		int index = heap[position];
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= size)
+				break;
+			if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]])
+				child++;
+			if (keys[heap[child]] >= keys[index])
+				break;
+			heap[position] = heap[child];
+			positions[heap[position]] = position;
+			position = child;
+		}
+		heap[position] = index;
+		positions[index] = position;
+	}
+}
@@ -113,6 +113,16 @@ public class One_way extends Road{
     	throw new NullPointerException();
     }
 
+    /**
+     * Does nothing, road only travels in direction of endpoint two, the end location.
+     * @param profile The new delay profile for the road going towards endpoint one
+     * @throws NullPointerException Every time method is called
+     */
+    @Override
+    public void setDelayProfileDirectionEndPointOne(DelayProfile profile) throws NullPointerException{
+    	throw new NullPointerException();
+    }
+
     /**
      * Road never travels in the direction of endpoint one.
      * @throws NullPointerException Every time method is called.
@@ -0,0 +1,646 @@
+package connections;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * A class of reachability indexes, which tell whether a location can be reached from another location at all, given
+ * the directions of one-way and alternating roads and the blocked directions of every road. A direction with an infinite
+ * delay counts as blocked. The index groups the locations of a road network in strongly connected components: two
+ * locations share a component if and only if each can be reached from the other. Whether one component can be reached
+ * from another is looked up in the graph of components, which is acyclic and usually far smaller than the network.
+ *
+ * The index follows changes to the roads incrementally. Removing a direction between two components only changes the
+ * graph of components. Adding one searches the graph of components for a cycle it closes, and merges the components on
+ * such a cycle at a cost linear in their locations and directions. Removing a direction within a component runs
+ * Tarjan's algorithm again over every location of that component, so in a network that is mostly two-way, where nearly
+ * every location shares one large component, it costs about as much as indexing the network anew. Changes are recorded
+ * as they happen and applied before the next query.
+ *
+ * The components reachable from a component are computed on its first query and kept until a change of direction
+ * touches a component reachable from it; the results for other components stay valid and are kept.
+ *
+ * The queries of one index run one at a time: concurrent callers of the same index wait for each other.
+ *
+ * @author Michiel Van der Haegen
+ * @author Sam Haberman
+ */
+public class ReachabilityIndex {
+
+	/**
+	 * Map registering the component of each location of the network.
+	 */
+	private final HashMap<Location, Integer> componentOf = new HashMap<>();
+
+	/**
+	 * Map registering the locations of each component.
+	 */
+	private final HashMap<Integer, List<Location>> members = new HashMap<>();
+
+	/**
+	 * Map registering, for each location, the number of directions leading to each other location.
+	 */
+	private final HashMap<Location, HashMap<Location, Integer>> leaving = new HashMap<>();
+
+	/**
+	 * Map registering, for each location, the number of directions arriving from each other location.
+	 */
+	private final HashMap<Location, HashMap<Location, Integer>> arriving = new HashMap<>();
+
+	/**
+	 * Map registering, for each component, the number of directions leading to each other component.
+	 */
+	private final HashMap<Integer, HashMap<Integer, Integer>> componentLeaving = new HashMap<>();
+
+	/**
+	 * Map registering, for each component, the number of directions arriving from each other component.
+	 */
+	private final HashMap<Integer, HashMap<Integer, Integer>> componentArriving = new HashMap<>();
+
+	/**
+	 * Map registering the directions of each road as recorded in this index, as pairs of the location the direction
+	 * leaves from and the location it leads to.
+	 */
+	private final HashMap<Road, List<Location>> recordedDirections = new HashMap<>();
+
+	/**
+	 * The roads that changed since the index was last brought up to date.
+	 */
+	private final LinkedHashSet<Road> changedRoads = new LinkedHashSet<>();
+
+	/**
+	 * Map registering, for components queried before, the components that can be reached from them. An entry is
+	 * dropped as soon as a component it contains changes.
+	 */
+	private final HashMap<Integer, BitSet> reachableComponents = new HashMap<>();
+
+	/**
+	 * The number the next new component gets.
+	 */
+	private int nextComponent = 0;
+
+	/**
+	 * The observer through which this index records changed roads. The index holds on to it, so it stays registered as
+	 * long as the index is in use.
+	 */
+	private final RoadObserver observer = this::recordChange;
+
+	/**
+	 * The index shared by the callers that do not keep an index of their own, held softly so that the garbage
+	 * collector can reclaim it and every network in it when memory runs low, or null if none was asked for yet.
+	 */
+	private static SoftReference<ReachabilityIndex> sharedIndex = null;
+
+	/**
+	 * Initialize a new reachability index on the road network consisting of the given locations and every location
+	 * connected to them through a chain of adjoining roads.
+	 *
+	 * @param locations
+	 * 		The locations of the network
+	 * @throws NullPointerException
+	 * 		The given collection is null or contains null
+	 * 	|	locations == null || locations.contains(null)
+	 */
+	public ReachabilityIndex(Collection<Location> locations) throws NullPointerException {
+		addLocations(locations);
+		Road.addObserver(observer);
+	}
+
+	/**
+	 * Returns the reachability index shared by the callers that do not keep an index of their own. The network of
+	 * the shared index starts out empty and grows with every network added to it, until the shared index is cleared
+	 * or reclaimed by the garbage collector, after which a new, empty one is handed out.
+	 */
+	public static synchronized ReachabilityIndex getSharedIndex() {
+		ReachabilityIndex result = sharedIndex == null ? null : sharedIndex.get();
+		if (result == null) {
+			result = new ReachabilityIndex(new ArrayList<>());
+			sharedIndex = new SoftReference<>(result);
+		}
+		return result;
+	}
+
+	/**
+	 * Drops the shared reachability index, so that the networks added to it can be garbage collected once no caller
+	 * holds on to it anymore.
+	 *
+	 * @post The next shared index is a new one, with an empty network
+	 */
+	public static synchronized void clearSharedIndex() {
+		sharedIndex = null;
+	}
+
+	/**
+	 * Records the given road as changed, to be applied before the next query.
+	 *
+	 * @param road The road that changed
+	 */
+	private synchronized void recordChange(Road road) {
+		changedRoads.add(road);
+	}
+
+	/**
+	 * Adds the road network of the given location to the network of this index: the given location and every
+	 * location connected to it through a chain of adjoining roads. Nothing changes if the location is part of the
+	 * network of this index already.
+	 *
+	 * @param location
+	 * 		The location whose network to add
+	 * @throws NullPointerException
+	 * 		The given location is null
+	 * 	|	location == null
+	 * @throws IllegalArgumentException
+	 * 		The given location is terminated
+	 * 	|	location.isTerminated()
+	 */
+	public synchronized void addNetwork(Location location) throws NullPointerException, IllegalArgumentException {
+		if (location == null)
+			throw new NullPointerException();
+		if (location.isTerminated())
+			throw new IllegalArgumentException();
+		update();
+		if (!componentOf.containsKey(location))
+			addLocations(Collections.singletonList(location));
+	}
+
+	/**
+	 * Adds the given locations and every location connected to them through a chain of adjoining roads to the network
+	 * of this index, none of which may be connected to a location of the network already.
+	 *
+	 * @param locations The locations to add
+	 * @throws NullPointerException
+	 * 		The given collection is null or contains null
+	 */
+	private void addLocations(Collection<Location> locations) throws NullPointerException {
+		ArrayDeque<Location> toVisit = new ArrayDeque<>();
+		for (Location location : locations) {
+			if (location == null)
+				throw new NullPointerException();
+			if (!location.isTerminated() && !componentOf.containsKey(location)) {
+				componentOf.put(location, -1);
+				toVisit.add(location);
+			}
+		}
+		ArrayList<Location> found = new ArrayList<>();
+		while (!toVisit.isEmpty()) {
+			Location location = toVisit.poll();
+			found.add(location);
+			for (Road road : location.getAdjoiningRoads()) {
+				Location other = road.getOppositeEndPoint(location);
+				if (!componentOf.containsKey(other)) {
+					componentOf.put(other, -1);
+					toVisit.add(other);
+				}
+				if (!recordedDirections.containsKey(road)) {
+					List<Location> directions = getDirections(road);
+					recordedDirections.put(road, directions);
+					for (int index = 0; index < directions.size(); index += 2)
+						addArc(leaving, directions.get(index), directions.get(index + 1), 1);
+				}
+			}
+		}
+		for (Location tail : found) {
+			HashMap<Location, Integer> heads = leaving.get(tail);
+			if (heads != null) {
+				for (Location head : heads.keySet())
+					addArc(arriving, head, tail, heads.get(head));
+			}
+		}
+		recompute(found, new ArrayList<>());
+	}
+
+	/**
+	 * Checks whether the given destination can be reached from the given origin along roads that can be driven in
+	 * their current direction and are not blocked. Changes to the roads since the last query are applied first.
+	 *
+	 * @param origin
+	 * 		The location to start from
+	 * @param destination
+	 * 		The location to reach
+	 * @throws NullPointerException
+	 * 		The given origin or destination is null
+	 * 	|	origin == null || destination == null
+	 * @throws IllegalArgumentException
+	 * 		The given origin or destination is terminated or not part of the network of this index
+	 * @return True if and only if there is a route from the origin to the destination of which every road can be
+	 * 			driven in the direction of the route.
+	 * 	|	result == (new RoutePlanner().findFastestRoute(origin, destination) != null)
+	 */
+	public synchronized boolean canReach(Location origin, Location destination)
+			throws NullPointerException, IllegalArgumentException {
+		int originComponent = getComponent(origin);
+		int destinationComponent = getComponent(destination);
+		if (originComponent == destinationComponent)
+			return true;
+		BitSet reachable = reachableComponents.get(originComponent);
+		if (reachable == null) {
+			reachable = new BitSet();
+			ArrayDeque<Integer> toVisit = new ArrayDeque<>();
+			reachable.set(originComponent);
+			toVisit.add(originComponent);
+			while (!toVisit.isEmpty()) {
+				for (int next : componentLeaving.getOrDefault(toVisit.poll(), new HashMap<>()).keySet()) {
+					if (!reachable.get(next)) {
+						reachable.set(next);
+						toVisit.add(next);
+					}
+				}
+			}
+			reachableComponents.put(originComponent, reachable);
+		}
+		return reachable.get(destinationComponent);
+	}
+
+	/**
+	 * Checks whether each of the given locations can be reached from the other one. Changes to the roads since the
+	 * last query are applied first.
+	 *
+	 * @param location1
+	 * 		The first location
+	 * @param location2
+	 * 		The second location
+	 * @throws NullPointerException
+	 * 		One of the given locations is null
+	 * 	|	location1 == null || location2 == null
+	 * @throws IllegalArgumentException
+	 * 		One of the given locations is terminated or not part of the network of this index
+	 * @return True if and only if both locations lie in the same strongly connected component.
+	 * 	|	result == (canReach(location1, location2) && canReach(location2, location1))
+	 */
+	public synchronized boolean areStronglyConnected(Location location1, Location location2)
+			throws NullPointerException, IllegalArgumentException {
+		return getComponent(location1) == getComponent(location2);
+	}
+
+	/**
+	 * Returns the number of strongly connected components of the network of this index, after applying the changes to
+	 * the roads since the last query.
+	 */
+	public synchronized int getComponentCount() {
+		update();
+		return members.size();
+	}
+
+	/**
+	 * Returns the component of the given location, after applying the changes to the roads since the last query.
+	 *
+	 * @param location The location to look up
+	 * @throws NullPointerException
+	 * 		The given location is null
+	 * @throws IllegalArgumentException
+	 * 		The given location is terminated or not part of the network of this index
+	 */
+	private int getComponent(Location location) throws NullPointerException, IllegalArgumentException {
+		if (location == null)
+			throw new NullPointerException();
+		if (location.isTerminated())
+			throw new IllegalArgumentException();
+		update();
+		Integer component = componentOf.get(location);
+		if (component == null)
+			throw new IllegalArgumentException();
+		return component;
+	}
+
+	/**
+	 * Applies the changes to the roads recorded since the last update.
+	 */
+	private void update() {
+		while (!changedRoads.isEmpty()) {
+			Iterator<Road> iterator = changedRoads.iterator();
+			Road road = iterator.next();
+			iterator.remove();
+			updateRoad(road);
+		}
+	}
+
+	/**
+	 * Brings the recorded directions of the given road in line with the directions in which it can be driven now.
+	 * A road between two locations outside the network is ignored; a road joining a new location to the network adds
+	 * that location, together with its other roads, even if the road cannot be driven in either direction. Every
+	 * location connected to the network through a chain of adjoining roads is thus part of it. A terminated location
+	 * that loses its last direction leaves the network.
+	 *
+	 * @param road The road that changed
+	 */
+	private void updateRoad(Road road) {
+		List<Location> recorded = recordedDirections.getOrDefault(road, new ArrayList<>());
+		List<Location> directions = getDirections(road);
+		if (!road.isTerminated()) {
+			Location endPoint1 = road.getEndPoint1();
+			Location endPoint2 = road.getEndPoint2();
+			if (!componentOf.containsKey(endPoint1) && !componentOf.containsKey(endPoint2))
+				return;
+			addLocation(endPoint1);
+			addLocation(endPoint2);
+		}
+		ArrayList<Location> added = new ArrayList<>(directions);
+		for (int index = 0; index < recorded.size(); index += 2) {
+			Location tail = recorded.get(index);
+			Location head = recorded.get(index + 1);
+			int match = indexOfDirection(added, tail, head);
+			if (match >= 0) {
+				added.remove(match);
+				added.remove(match);
+			} else {
+				removeDirection(tail, head);
+			}
+		}
+		for (int index = 0; index < added.size(); index += 2)
+			addDirection(added.get(index), added.get(index + 1));
+		if (directions.isEmpty())
+			recordedDirections.remove(road);
+		else
+			recordedDirections.put(road, directions);
+		for (Location location : recorded)
+			removeIfTerminated(location);
+	}
+
+	/**
+	 * Removes the given location from the network of this index if it is terminated and no direction leaves from or
+	 * leads to it anymore. Such a location forms a component of its own.
+	 *
+	 * @param location The location to check
+	 */
+	private void removeIfTerminated(Location location) {
+		if (!location.isTerminated() || !componentOf.containsKey(location))
+			return;
+		if (!leaving.getOrDefault(location, new HashMap<>()).isEmpty()
+				|| !arriving.getOrDefault(location, new HashMap<>()).isEmpty())
+			return;
+		int component = componentOf.remove(location);
+		members.remove(component);
+		componentLeaving.remove(component);
+		componentArriving.remove(component);
+		leaving.remove(location);
+		arriving.remove(location);
+		forgetReachableFrom(component);
+	}
+
+	/**
+	 * Returns the directions in which the given road can be driven now, as pairs of the location the direction leaves
+	 * from and the location it leads to. A direction with an infinite travel time, such as one with an infinite delay,
+	 * cannot be driven, just as the route planner skips it.
+	 *
+	 * @param road The road to inspect
+	 */
+	private static List<Location> getDirections(Road road) {
+		ArrayList<Location> directions = new ArrayList<>();
+		if (road.isTerminated())
+			return directions;
+		for (int position = 0; position < road.getStartLocationCount(); position++) {
+			Location location = road.getStartLocationAt(position);
+			if (location != null && road.calculateTravelTimeFrom(location) != Float.POSITIVE_INFINITY) {
+				directions.add(location);
+				directions.add(road.getOppositeEndPoint(location));
+			}
+		}
+		return directions;
+	}
+
+	/**
+	 * Returns the position of the given direction in the given list of pairs, or -1 if it is not in the list.
+	 *
+	 * @param directions The list of pairs of locations
+	 * @param tail The location the direction leaves from
+	 * @param head The location the direction leads to
+	 */
+	private static int indexOfDirection(List<Location> directions, Location tail, Location head) {
+		for (int index = 0; index < directions.size(); index += 2) {
+			if (directions.get(index) == tail && directions.get(index + 1) == head)
+				return index;
+		}
+		return -1;
+	}
+
+	/**
+	 * Adds the given location to the network of this index in a component of its own, if it is not part of it yet,
+	 * and records its roads as changed.
+	 *
+	 * @param location The location to add
+	 */
+	private void addLocation(Location location) {
+		if (componentOf.containsKey(location))
+			return;
+		int component = nextComponent++;
+		componentOf.put(location, component);
+		ArrayList<Location> locations = new ArrayList<>();
+		locations.add(location);
+		members.put(component, locations);
+		changedRoads.addAll(location.getAdjoiningRoads());
+	}
+
+	/**
+	 * Adds a direction from the given tail to the given head. If the direction closes a cycle through other
+	 * components, the components on that cycle are merged.
+	 *
+	 * @param tail The location the direction leaves from
+	 * @param head The location the direction leads to
+	 */
+	private void addDirection(Location tail, Location head) {
+		addArc(leaving, tail, head, 1);
+		addArc(arriving, head, tail, 1);
+		int tailComponent = componentOf.get(tail);
+		int headComponent = componentOf.get(head);
+		if (tailComponent == headComponent)
+			return;
+		HashSet<Integer> forward = collectComponents(headComponent, componentLeaving);
+		if (!forward.contains(tailComponent)) {
+			forgetReachableFrom(tailComponent);
+			addArc(componentLeaving, tailComponent, headComponent, 1);
+			addArc(componentArriving, headComponent, tailComponent, 1);
+			return;
+		}
+		HashSet<Integer> cycle = collectComponents(tailComponent, componentArriving);
+		cycle.retainAll(forward);
+		ArrayList<Location> locations = new ArrayList<>();
+		for (int component : cycle)
+			locations.addAll(members.get(component));
+		recompute(locations, cycle);
+	}
+
+	/**
+	 * Removes a direction from the given tail to the given head. If both lie in the same component, the components of
+	 * the locations of that component are computed again.
+	 *
+	 * @param tail The location the direction leaves from
+	 * @param head The location the direction leads to
+	 */
+	private void removeDirection(Location tail, Location head) {
+		addArc(leaving, tail, head, -1);
+		addArc(arriving, head, tail, -1);
+		int tailComponent = componentOf.get(tail);
+		int headComponent = componentOf.get(head);
+		if (tailComponent != headComponent) {
+			addArc(componentLeaving, tailComponent, headComponent, -1);
+			addArc(componentArriving, headComponent, tailComponent, -1);
+			if (!componentLeaving.get(tailComponent).containsKey(headComponent))
+				forgetReachableFrom(tailComponent);
+			return;
+		}
+		ArrayList<Integer> old = new ArrayList<>();
+		old.add(tailComponent);
+		recompute(new ArrayList<>(members.get(tailComponent)), old);
+	}
+
+	/**
+	 * Drops the cached reachable components of every component from which the given component can be reached. These
+	 * are the only cached results a change of the directions leaving the given component can affect.
+	 *
+	 * @param component The component that changed
+	 */
+	private void forgetReachableFrom(int component) {
+		reachableComponents.values().removeIf(reachable -> reachable.get(component));
+	}
+
+	/**
+	 * Returns the given component and every component reachable from it along the given directions between components.
+	 *
+	 * @param start The component to start from
+	 * @param directions The directions between components to follow
+	 */
+	private static HashSet<Integer> collectComponents(int start, HashMap<Integer, HashMap<Integer, Integer>> directions) {
+		HashSet<Integer> found = new HashSet<>();
+		ArrayDeque<Integer> toVisit = new ArrayDeque<>();
+		found.add(start);
+		toVisit.add(start);
+		while (!toVisit.isEmpty()) {
+			HashMap<Integer, Integer> next = directions.get(toVisit.poll());
+			if (next == null)
+				continue;
+			for (int component : next.keySet()) {
+				if (found.add(component))
+					toVisit.add(component);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Adds the given number to the count of directions from the given key to the given value in the given map, and
+	 * removes the entry when the count drops to zero.
+	 *
+	 * @param map The map of counts
+	 * @param from The key the directions leave from
+	 * @param to The key the directions lead to
+	 * @param count The number to add
+	 */
+	private static <T> void addArc(HashMap<T, HashMap<T, Integer>> map, T from, T to, int count) {
+		HashMap<T, Integer> counts = map.computeIfAbsent(from, key -> new HashMap<>());
+		int total = counts.getOrDefault(to, 0) + count;
+		if (total == 0)
+			counts.remove(to);
+		else
+			counts.put(to, total);
+	}
+
+	/**
+	 * Replaces the given components, which together hold the given locations, by the strongly connected components of
+	 * those locations, found with Tarjan's algorithm, and registers the directions between the new components and all
+	 * other components.
+	 *
+	 * @param locations The locations to group again
+	 * @param oldComponents The components the locations belonged to
+	 */
+	private void recompute(List<Location> locations, Collection<Integer> oldComponents) {
+		for (int component : oldComponents) {
+			forgetReachableFrom(component);
+			HashMap<Integer, Integer> heads = componentLeaving.remove(component);
+			if (heads != null) {
+				for (int head : heads.keySet()) {
+					if (componentArriving.containsKey(head))
+						componentArriving.get(head).remove(component);
+				}
+			}
+			HashMap<Integer, Integer> tails = componentArriving.remove(component);
+			if (tails != null) {
+				for (int tail : tails.keySet()) {
+					if (componentLeaving.containsKey(tail))
+						componentLeaving.get(tail).remove(component);
+				}
+			}
+			members.remove(component);
+		}
+		HashSet<Location> scope = new HashSet<>(locations);
+		HashMap<Location, Integer> order = new HashMap<>();
+		HashMap<Location, Integer> lowest = new HashMap<>();
+		ArrayDeque<Location> stack = new ArrayDeque<>();
+		HashSet<Location> onStack = new HashSet<>();
+		ArrayDeque<Location> path = new ArrayDeque<>();
+		ArrayDeque<Iterator<Location>> pending = new ArrayDeque<>();
+		for (Location root : locations) {
+			if (order.containsKey(root))
+				continue;
+			order.put(root, order.size());
+			lowest.put(root, order.get(root));
+			stack.push(root);
+			onStack.add(root);
+			path.push(root);
+			pending.push(leaving.getOrDefault(root, new HashMap<>()).keySet().iterator());
+			while (!path.isEmpty()) {
+				Location location = path.peek();
+				Iterator<Location> heads = pending.peek();
+				if (heads.hasNext()) {
+					Location head = heads.next();
+					if (!scope.contains(head))
+						continue;
+					if (!order.containsKey(head)) {
+						order.put(head, order.size());
+						lowest.put(head, order.get(head));
+						stack.push(head);
+						onStack.add(head);
+						path.push(head);
+						pending.push(leaving.getOrDefault(head, new HashMap<>()).keySet().iterator());
+					} else if (onStack.contains(head)) {
+						lowest.put(location, Math.min(lowest.get(location), order.get(head)));
+					}
+					continue;
+				}
+				path.pop();
+				pending.pop();
+				if (!path.isEmpty())
+					lowest.put(path.peek(), Math.min(lowest.get(path.peek()), lowest.get(location)));
+				if (lowest.get(location).equals(order.get(location))) {
+					int component = nextComponent++;
+					ArrayList<Location> componentMembers = new ArrayList<>();
+					Location member;
+					do {
+						member = stack.pop();
+						onStack.remove(member);
+						componentOf.put(member, component);
+						componentMembers.add(member);
+					} while (member != location);
+					members.put(component, componentMembers);
+				}
+			}
+		}
+		for (Location tail : locations) {
+			int tailComponent = componentOf.get(tail);
+			HashMap<Location, Integer> heads = leaving.getOrDefault(tail, new HashMap<>());
+			for (Location head : heads.keySet()) {
+				int headComponent = componentOf.get(head);
+				if (headComponent != tailComponent) {
+					addArc(componentLeaving, tailComponent, headComponent, heads.get(head));
+					addArc(componentArriving, headComponent, tailComponent, heads.get(head));
+				}
+			}
+			HashMap<Location, Integer> tails = arriving.getOrDefault(tail, new HashMap<>());
+			for (Location other : tails.keySet()) {
+				if (!scope.contains(other)) {
+					int otherComponent = componentOf.get(other);
+					addArc(componentLeaving, otherComponent, tailComponent, tails.get(other));
+					addArc(componentArriving, tailComponent, otherComponent, tails.get(other));
+				}
+			}
+		}
+	}
+}
@@ -1,11 +1,21 @@
 package connections;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import be.kuleuven.cs.som.annotate.*;
 
 /**
  * A class of roads where each road has an ID, connects two end points, has a length in meters, 
  * a speed limit an average road speed under normal conditions in meters per second,
  * a delay in seconds, and a blocked status for each endpoint direction.
+ * The length, speeds, delays and blocked statuses of all roads are held outside the heap in one attribute store,
+ * in which each road owns a slot; the ID, endpoints and delay profiles stay on the road itself. A road gives its slot
+ * back when it is terminated, keeping a copy of its attributes on the heap.
+ * The state shared by all roads, such as the ID registry, the attribute store, the versions of the road network and the
+ * registered observers, can be used from several threads at once. A single road cannot: concurrent changes to the same
+ * road must be coordinated by their callers.
  * 
  * @invar The ID of each road must be a valid ID for any road
  * 		| isValidID(getID())
@@ -32,9 +42,9 @@ public abstract class Road extends Segments {
 	 */
 	private String ID;
 	/**
-	 * The list containing the IDs of all roads
+	 * The map registering each road that is not terminated under its ID
 	 */
-	private static ArrayList<String> idArray = new ArrayList<>();
+	private static final ConcurrentHashMap<String, Road> roadsByID = new ConcurrentHashMap<>();
 	/**
 	 * The minimum length an ID can have
 	 */
@@ -44,37 +54,55 @@ public abstract class Road extends Segments {
 	 */
 	private static int maxIDLength = 3;
 	/**
-	 * The first endpoint of the road
+	 * The store holding the length, speed limit, average speed, delays and blocked statuses of all roads outside the heap
 	 */
-	private int length;
+	private static final RoadAttributeStore attributes = new RoadAttributeStore();
 	/**
-	 * The standard speed limit of the road in meters per second
+	 * The store holding the attributes of the road: the shared store while the road is not terminated, a store of its
+	 * own once it is
 	 */
-	private float speedlimit = 19.5F;
+	private RoadAttributeStore store = attributes;
 	/**
-	 * The average speed of the road in meters per second
+	 * The slot of the road in its attribute store
 	 */
-	private float roadSpeed;
+	private int slot = attributes.allocate();
+	/**
+	 * The standard speed limit of a road in meters per second
+	 */
+	private static final float STANDARD_SPEED_LIMIT = 19.5F;
 	/**
 	 * The maximum speed limit a road can have, equal to the speed of light
 	 */
 	private static final float MAX_SPEED = (float) 299792458.0;
 	/**
-	 * The delay of a road in the direction of the first endpoint
+	 * The highest straight-line speed ever reached on a road, an upper bound on the straight-line speed of every road
+	 */
+	private static volatile float fastestStraightLineSpeed = 0.0F;
+	/**
+	 * The number of times a road was created, terminated or changed direction, used to detect outdated indexes on the road network
+	 */
+	private static final AtomicLong topologyVersion = new AtomicLong();
+	/**
+	 * The number of times the length, speed, delay or blocked status of a road changed, used to detect outdated travel times
+	 */
+	private static final AtomicLong metricVersion = new AtomicLong();
+	/**
+	 * The number of times the length or average speed of a road changed, used to detect outdated free-flow travel times
 	 */
-	private float delayDirectionOne = 0.0F;
+	private static final AtomicLong freeFlowVersion = new AtomicLong();
 	/**
-	 * The delay of a road in the direction of the second endpoint
+	 * The observers notified of every change to a road, held weakly so that observers no longer in use can be garbage
+	 * collected
 	 */
-	private float delayDirectionTwo = 0.0F;
+	private static final Set<RoadObserver> observers = Collections.newSetFromMap(new WeakHashMap<>());
 	/**
-	 * The blocked status of a road in the direction of the first endpoint
+	 * The delay profile of a road in the direction of the first endpoint, null if it has none
 	 */
-	private boolean blockedDirectionOne = false;
+	private DelayProfile delayProfileDirectionOne = null;
 	/**
-	 * The blocked status of a road in the direction of the second endpoint
+	 * The delay profile of a road in the direction of the second endpoint, null if it has none
 	 */
-	private boolean blockedDirectionTwo = false;
+	private DelayProfile delayProfileDirectionTwo = null;
 	/**
 	 * The maximum latitude coordinate
 	 */
@@ -138,15 +166,26 @@ public abstract class Road extends Segments {
 	 * | new.location2.hasAsAdjoiningRoad(this) == true
 	 */
 	public Road(String id, Location location1, Location location2, int length, float roadSpeed) {
-		this.setID(id);
-		assert isValidEndPoint(location1.getCoordinate());
-		assert isValidEndPoint(location2.getCoordinate());
-		this.location1 = location1;
-		this.location2 = location2;
-		this.setLength(length);
-		this.setAvgRoadSpeed(roadSpeed);
-		location1.addAdjoiningRoad(this);
-		location2.addAdjoiningRoad(this);
+		try {
+			assert isValidEndPoint(location1.getCoordinate());
+			assert isValidEndPoint(location2.getCoordinate());
+			this.location1 = location1;
+			this.location2 = location2;
+			this.setLength(length);
+			store.putFloat(slot, RoadAttributeStore.SPEED_LIMIT, STANDARD_SPEED_LIMIT);
+			this.setAvgRoadSpeed(roadSpeed);
+			this.setID(id);
+			location1.addAdjoiningRoad(this);
+			location2.addAdjoiningRoad(this);
+		} catch (RuntimeException | Error exc) {
+			if (ID != null)
+				roadsByID.remove(ID, this);
+			store = attributes.detach(slot);
+			slot = 0;
+			throw exc;
+		}
+		topologyVersion.incrementAndGet();
+		notifyObservers();
 	}
 
 	/**
@@ -180,24 +219,34 @@ public abstract class Road extends Segments {
 	 * | new.location2.hasAsAdjoiningRoad(this) == true
 	 */
 	public Road(String id, Location location1, Location location2, int length, float speedlimit, float roadSpeed) {
-		this.setID(id);
-		assert isValidEndPoint(location1.getCoordinate());
-		assert isValidEndPoint(location2.getCoordinate());
-		this.location1 = location1;
-		this.location2 = location2;
-		this.setLength(length);
-		this.speedlimit = speedlimit;
-		this.roadSpeed = roadSpeed;
-		this.setSpeedLimit(speedlimit);
-		this.setAvgRoadSpeed(roadSpeed);
-		location1.addAdjoiningRoad(this);
-		location2.addAdjoiningRoad(this);
+		try {
+			assert isValidEndPoint(location1.getCoordinate());
+			assert isValidEndPoint(location2.getCoordinate());
+			this.location1 = location1;
+			this.location2 = location2;
+			this.setLength(length);
+			store.putFloat(slot, RoadAttributeStore.SPEED_LIMIT, speedlimit);
+			store.putFloat(slot, RoadAttributeStore.ROAD_SPEED, roadSpeed);
+			this.setSpeedLimit(speedlimit);
+			this.setAvgRoadSpeed(roadSpeed);
+			this.setID(id);
+			location1.addAdjoiningRoad(this);
+			location2.addAdjoiningRoad(this);
+		} catch (RuntimeException | Error exc) {
+			if (ID != null)
+				roadsByID.remove(ID, this);
+			store = attributes.detach(slot);
+			slot = 0;
+			throw exc;
+		}
+		topologyVersion.incrementAndGet();
+		notifyObservers();
 	}
 
 	/**
 	 * Sets the Identification of the road to the given ID value, if it is valid.
-	 * If the road ID is being changed, deletes the old ID from the ID list and adds
-	 * the new ID to the ID list
+	 * The road is registered under the new ID, and if the road ID is being changed,
+	 * it is no longer registered under the old ID
 	 *
 	 * @param ID The new ID for our road
 	 * @throws IllegalArgumentException The given ID of the road is not valid.
@@ -212,11 +261,13 @@ public abstract class Road extends Segments {
 		if (!isValidID(ID)) {
 			throw new IllegalArgumentException();
 		}
+		if (roadsByID.putIfAbsent(ID, this) != null) {
+			throw new IllegalArgumentException();
+		}
 		String oldID = this.getID();
 		if (oldID != null) {
-			idArray.remove(oldID);
+			roadsByID.remove(oldID, this);
 		}
-		idArray.add(ID);
 		this.ID = ID;
 	}
 
@@ -271,16 +322,23 @@ public abstract class Road extends Segments {
 	 *
 	 * @param ID The ID to be checked
 	 * @return True if the ID given is not used for another road
-	 * |  for each element in idArray:
-	 * !ID.equals(element)
+	 * | result == (lookup(ID) == null)
 	 */
 	public boolean isUniqueID(String ID) {
-		for (String i : idArray) {
-			if (ID.equals(i)) {
-				return false;
-			}
-		}
-		return true;
+		return !roadsByID.containsKey(ID);
+	}
+
+	/**
+	 * Returns the road with the given ID.
+	 *
+	 * @param ID The ID to look up
+	 * @throws NullPointerException The given ID is null
+	 *                              | ID == null
+	 * @return The non-terminated road whose ID is the given ID, or null if there is no such road.
+	 * | result == null || (result.getID().equals(ID) && !result.isTerminated())
+	 */
+	public static Road lookup(String ID) throws NullPointerException {
+		return roadsByID.get(ID);
 	}
 
 	/**
@@ -340,8 +398,8 @@ public abstract class Road extends Segments {
 	 * | sqrt((x2-x1)^2+(y2-y1)^2)
 	 */
 	public int calculateMinLength() {
-		double ydif = getEndPoint2().getCoordinate()[1] - getEndPoint1().getCoordinate()[1];
-		double xdif = getEndPoint2().getCoordinate()[0] - getEndPoint1().getCoordinate()[0];
+		double ydif = getEndPoint2().getLatitude() - getEndPoint1().getLatitude();
+		double xdif = getEndPoint2().getLongitude() - getEndPoint1().getLongitude();
 		return (int) Math.sqrt((xdif * xdif) + (ydif * ydif));
 	}
 
@@ -351,7 +409,7 @@ public abstract class Road extends Segments {
 	@Basic
 	@Override
 	public int getLength() {
-		return this.length;
+		return store.getInt(slot, RoadAttributeStore.LENGTH);
 	}
 
 	/**
@@ -377,10 +435,13 @@ public abstract class Road extends Segments {
 	 * | then new.getLength() == this.calculateMinLength()
 	 */
 	public void setLength(int length) {
-		if (isValidLength(length))
-			this.length = length;
-		else
-			this.length = this.calculateMinLength();
+		if (!isValidLength(length))
+			length = this.calculateMinLength();
+		store.putInt(slot, RoadAttributeStore.LENGTH, length);
+		updateFastestStraightLineSpeed();
+		metricVersion.incrementAndGet();
+		freeFlowVersion.incrementAndGet();
+		notifyObservers();
 	}
 
 	/**
@@ -395,7 +456,9 @@ public abstract class Road extends Segments {
 	public void setSpeedLimit(float speedlimit) throws IllegalArgumentException {
 		if (!isValidSpeedLimit(speedlimit))
 			throw new IllegalArgumentException();
-		this.speedlimit = speedlimit;
+		store.putFloat(slot, RoadAttributeStore.SPEED_LIMIT, speedlimit);
+		metricVersion.incrementAndGet();
+		notifyObservers();
 	}
 
 	/**
@@ -403,7 +466,7 @@ public abstract class Road extends Segments {
 	 */
 	@Basic
 	public float getSpeedlimit() {
-		return speedlimit;
+		return store.getFloat(slot, RoadAttributeStore.SPEED_LIMIT);
 	}
 
 	/**
@@ -415,7 +478,7 @@ public abstract class Road extends Segments {
 	 * | result == (speedlimit > 0) && (speedlimit <= maxSpeed) && (speedlimit >= roadSpeed)
 	 */
 	public boolean isValidSpeedLimit(float speedlimit) {
-		return ((speedlimit > 0.0F) && (speedlimit <= MAX_SPEED) && (speedlimit >= roadSpeed));
+		return ((speedlimit > 0.0F) && (speedlimit <= MAX_SPEED) && (speedlimit >= getRoadSpeed()));
 	}
 
 	/**
@@ -426,11 +489,62 @@ public abstract class Road extends Segments {
 	 *                                  | !isValidRoadSpeed(roadspeed)
 	 * @post The average speed of the road under standard conditions is set to the given roadspeed value
 	 * | new.getRoadSpeed() == roadspeed
+	 * @post The fastest straight-line speed is at least the straight-line speed of this road
+	 * | getFastestStraightLineSpeed() >= calculateStraightLineSpeed()
 	 */
 	public void setAvgRoadSpeed(float roadspeed) throws IllegalArgumentException {
 		if (!isValidRoadSpeed(roadspeed))
 			throw new IllegalArgumentException();
-		this.roadSpeed = roadspeed;
+		store.putFloat(slot, RoadAttributeStore.ROAD_SPEED, roadspeed);
+		updateFastestStraightLineSpeed();
+		metricVersion.incrementAndGet();
+		freeFlowVersion.incrementAndGet();
+		notifyObservers();
+	}
+
+	/**
+	 * Returns the straight-line speed of this road: the distance between its endpoints divided by its travel time
+	 * without delays. Since the endpoints of a road are never further apart than its length, this is at most its
+	 * average road speed, but a road may be slightly shorter than the distance between its endpoints when that
+	 * distance is rounded down, in which case it is higher.
+	 *
+	 * @return The distance between the endpoints times the average road speed divided by the length, zero if the
+	 * 			endpoints coincide and infinity if only the length is zero.
+	 * 	|	result == sqrt((x2-x1)^2+(y2-y1)^2) * getRoadSpeed() / getLength()
+	 */
+	public float calculateStraightLineSpeed() {
+		double ydif = getEndPoint2().getLatitude() - getEndPoint1().getLatitude();
+		double xdif = getEndPoint2().getLongitude() - getEndPoint1().getLongitude();
+		double distance = Math.sqrt((xdif * xdif) + (ydif * ydif));
+		if (distance == 0.0)
+			return 0.0F;
+		return (float) (distance * getRoadSpeed() / getLength());
+	}
+
+	/**
+	 * Raises the fastest straight-line speed to the straight-line speed of this road if that is higher.
+	 */
+	private void updateFastestStraightLineSpeed() {
+		raiseFastestStraightLineSpeed(calculateStraightLineSpeed());
+	}
+
+	/**
+	 * Raises the fastest straight-line speed to the given speed if that is higher.
+	 *
+	 * @param speed The straight-line speed reached on a road
+	 */
+	private static synchronized void raiseFastestStraightLineSpeed(float speed) {
+		if (speed > fastestStraightLineSpeed)
+			fastestStraightLineSpeed = speed;
+	}
+
+	/**
+	 * Returns the highest straight-line speed that was ever reached on a road. No road, terminated or not, covers
+	 * the distance between its endpoints faster than this, so the straight-line distance between two locations
+	 * divided by this speed is a lower bound on the travel time of every path between them.
+	 */
+	public static float getFastestStraightLineSpeed() {
+		return fastestStraightLineSpeed;
 	}
 
 	/**
@@ -438,7 +552,7 @@ public abstract class Road extends Segments {
 	 */
 	@Basic
 	public float getRoadSpeed() {
-		return roadSpeed;
+		return store.getFloat(slot, RoadAttributeStore.ROAD_SPEED);
 	}
 
 	/**
@@ -450,7 +564,7 @@ public abstract class Road extends Segments {
 	 * | result == (roadSpeed > 0 && roadSpeed <= speedlimit && roadSpeed <= maxSpeed)
 	 */
 	public boolean isValidRoadSpeed(float roadSpeed) {
-		return ((roadSpeed > 0.0F) && (roadSpeed <= speedlimit) && (roadSpeed <= MAX_SPEED));
+		return ((roadSpeed > 0.0F) && (roadSpeed <= getSpeedlimit()) && (roadSpeed <= MAX_SPEED));
 	}
 
 	/**
@@ -465,7 +579,9 @@ public abstract class Road extends Segments {
 
 	public void setDelayDirectionEndPointOne(float delay) {
 		assert isValidDelay(delay);
-		this.delayDirectionOne = delay;
+		store.putFloat(slot, RoadAttributeStore.DELAY_ONE, delay);
+		metricVersion.incrementAndGet();
+		notifyObservers();
 	}
 
 	/**
@@ -480,7 +596,9 @@ public abstract class Road extends Segments {
 
 	public void setDelayDirectionEndPointTwo(float delay) {
 		assert isValidDelay(delay);
-		this.delayDirectionTwo = delay;
+		store.putFloat(slot, RoadAttributeStore.DELAY_TWO, delay);
+		metricVersion.incrementAndGet();
+		notifyObservers();
 	}
 
 	/**
@@ -499,14 +617,58 @@ public abstract class Road extends Segments {
 	 * Returns the delay in seconds for the road in the direction of endpoint one
 	 */
 	public float getDelayDirectionEndPointOne() {
-		return delayDirectionOne;
+		return store.getFloat(slot, RoadAttributeStore.DELAY_ONE);
 	}
 
 	/**
 	 * Returns the delay in seconds for the road in the direction of endpoint two
 	 */
 	public float getDelayDirectionEndPointTwo() {
-		return delayDirectionTwo;
+		return store.getFloat(slot, RoadAttributeStore.DELAY_TWO);
+	}
+
+	/**
+	 * Sets the delay profile of the road in the direction of endpoint one to the given profile. The profile only
+	 * affects time-dependent travel times, in which its delay at the time of departure is added to the delay of the road.
+	 *
+	 * @param profile The new delay profile for the road going towards endpoint one, or null to remove it
+	 * @post The delay profile of the road going towards endpoint one is equal to the given profile
+	 * | new.getDelayProfileDirectionEndPointOne() == profile
+	 */
+	public void setDelayProfileDirectionEndPointOne(DelayProfile profile) {
+		this.delayProfileDirectionOne = profile;
+		metricVersion.incrementAndGet();
+		notifyObservers();
+	}
+
+	/**
+	 * Sets the delay profile of the road in the direction of endpoint two to the given profile. The profile only
+	 * affects time-dependent travel times, in which its delay at the time of departure is added to the delay of the road.
+	 *
+	 * @param profile The new delay profile for the road going towards endpoint two, or null to remove it
+	 * @post The delay profile of the road going towards endpoint two is equal to the given profile
+	 * | new.getDelayProfileDirectionEndPointTwo() == profile
+	 */
+	public void setDelayProfileDirectionEndPointTwo(DelayProfile profile) {
+		this.delayProfileDirectionTwo = profile;
+		metricVersion.incrementAndGet();
+		notifyObservers();
+	}
+
+	/**
+	 * Returns the delay profile for the road in the direction of endpoint one, or null if it has none
+	 */
+	@Basic
+	public DelayProfile getDelayProfileDirectionEndPointOne() {
+		return delayProfileDirectionOne;
+	}
+
+	/**
+	 * Returns the delay profile for the road in the direction of endpoint two, or null if it has none
+	 */
+	@Basic
+	public DelayProfile getDelayProfileDirectionEndPointTwo() {
+		return delayProfileDirectionTwo;
 	}
 
 
@@ -520,7 +682,9 @@ public abstract class Road extends Segments {
 	 * | new.isBlockedDirectionOne() == blocked
 	 */
 	public void setBlockedDirectionEndPointOne(boolean blocked) {
-		this.blockedDirectionOne = blocked;
+		store.setFlag(slot, RoadAttributeStore.BLOCKED_ONE, blocked);
+		metricVersion.incrementAndGet();
+		notifyObservers();
 	}
 
 	/**
@@ -533,21 +697,23 @@ public abstract class Road extends Segments {
 	 * | new.isBlockedDirectionTwo() == blocked
 	 */
 	public void setBlockedDirectionEndPointTwo(boolean blocked) {
-		this.blockedDirectionTwo = blocked;
+		store.setFlag(slot, RoadAttributeStore.BLOCKED_TWO, blocked);
+		metricVersion.incrementAndGet();
+		notifyObservers();
 	}
 
 	/**
 	 * Returns the blocked status of the road going towards endpoint one
 	 */
 	public boolean isBlockedDirectionEndPointOne() {
-		return blockedDirectionOne;
+		return store.hasFlag(slot, RoadAttributeStore.BLOCKED_ONE);
 	}
 
 	/**
 	 * Returns the blocked status of the road going towards endpoint two
 	 */
 	public boolean isBlockedDirectionEndPointTwo() {
-		return blockedDirectionTwo;
+		return store.hasFlag(slot, RoadAttributeStore.BLOCKED_TWO);
 	}
 
 	/**
@@ -580,6 +746,89 @@ public abstract class Road extends Segments {
 		return time;
 	}
 
+	/**
+	 * Checks whether this road can be driven starting from the given location.
+	 *
+	 * @param location The location to leave from
+	 * @return True if this road is not terminated, does not start and end in the same location, has the given location
+	 * 			as one of its start locations and is not blocked in the direction leading away from the given location.
+	 * 		| result == (!isTerminated() && getEndPoint1() != getEndPoint2() &&
+	 * 		|	hasAsStartLocation(location) &&
+	 * 		|	(location == getEndPoint1() ? !isBlockedDirectionEndPointTwo() : !isBlockedDirectionEndPointOne()))
+	 */
+	public boolean isTraversableFrom(Location location) {
+		if (this.isTerminated || location == null || location1 == location2)
+			return false;
+		if (!hasAsStartLocation(location))
+			return false;
+		if (location == location1)
+			return !isBlockedDirectionEndPointTwo();
+		return !isBlockedDirectionEndPointOne();
+	}
+
+	/**
+	 * A method to calculate the travel time of this road when driving away from the given location.
+	 *
+	 * @param location The location to leave from
+	 * @return Infinity if this road cannot be driven starting from the given location
+	 * 		| if (!isTraversableFrom(location))
+	 * 		|	result == Float.POSITIVE_INFINITY
+	 * @return The travel time in the direction of the second endpoint if the given location is the first endpoint,
+	 * 			the travel time in the direction of the first endpoint otherwise.
+	 * 		| if (location == getEndPoint1())
+	 * 		|	result == calculateTravelTimeEndPointTwo()
+	 * 		| else
+	 * 		|	result == calculateTravelTimeEndPointOne()
+	 */
+	public float calculateTravelTimeFrom(Location location) {
+		if (!isTraversableFrom(location))
+			return Float.POSITIVE_INFINITY;
+		if (location == location1)
+			return calculateTravelTimeEndPointTwo();
+		return calculateTravelTimeEndPointOne();
+	}
+
+	/**
+	 * A method to calculate the time of arrival at the other end of this road when driving away from the given location
+	 * at the given time. The delay profile in the direction driven, if any, is evaluated at the time of departure.
+	 * Because every delay profile is FIFO, leaving later never makes the arrival earlier.
+	 *
+	 * @param location The location to leave from
+	 * @param departureTime The time of departure in seconds
+	 * @return Infinity if this road cannot be driven starting from the given location
+	 * 		| if (!isTraversableFrom(location))
+	 * 		|	result == Float.POSITIVE_INFINITY
+	 * @return Otherwise the time of departure plus the travel time from the given location and the delay of the delay
+	 * 			profile in the direction driven at the time of departure.
+	 * 		| result == departureTime + calculateTravelTimeFrom(location) +
+	 * 		|	(profile == null ? 0 : profile.getDelay(departureTime))
+	 */
+	public float calculateArrivalTimeFrom(Location location, float departureTime) {
+		float travelTime = calculateTravelTimeFrom(location);
+		if (travelTime == Float.POSITIVE_INFINITY)
+			return Float.POSITIVE_INFINITY;
+		DelayProfile profile = (location == location1) ? delayProfileDirectionTwo : delayProfileDirectionOne;
+		if (profile != null)
+			travelTime += profile.getDelay(departureTime);
+		return departureTime + travelTime;
+	}
+
+	/**
+	 * Returns the endpoint of this road at the opposite side of the given location.
+	 *
+	 * @param location One of the endpoints of this road
+	 * @return The second endpoint if the given location is the first endpoint, the first endpoint otherwise.
+	 * 		| if (location == getEndPoint1())
+	 * 		|	result == getEndPoint2()
+	 * 		| else
+	 * 		|	result == getEndPoint1()
+	 */
+	public Location getOppositeEndPoint(Location location) {
+		if (location == location1)
+			return location2;
+		return location1;
+	}
+
 	/**
 	 * Returns the first endpoint of this road as a location.
 	 */
@@ -696,6 +945,65 @@ public abstract class Road extends Segments {
 		return false;
 	}
 
+	/**
+	 * Returns the topology version of the road network. The version changes whenever a road is created, terminated or
+	 * changes its direction, so an index built on the network is outdated as soon as the version differs from the
+	 * version at the time the index was built.
+	 */
+	public static long getTopologyVersion() {
+		return topologyVersion.get();
+	}
+
+	/**
+	 * Returns the metric version of the road network. The version changes whenever the length, speed limit, average
+	 * speed, delay or blocked status of a road changes, so travel times derived from the network are outdated as soon
+	 * as the version differs from the version at the time they were derived.
+	 */
+	public static long getMetricVersion() {
+		return metricVersion.get();
+	}
+
+	/**
+	 * Returns the free-flow version of the road network. The version changes whenever the length or average speed of a
+	 * road changes, so free-flow travel times derived from the network, which disregard delays and blocks, are
+	 * outdated as soon as the version differs from the version at the time they were derived.
+	 */
+	public static long getFreeFlowVersion() {
+		return freeFlowVersion.get();
+	}
+
+	/**
+	 * Registers the given observer, so that it is notified of every later change to a road. The observer is only held
+	 * weakly.
+	 *
+	 * @param observer The observer to register
+	 */
+	static void addObserver(RoadObserver observer) {
+		synchronized (observers) {
+			observers.add(observer);
+		}
+	}
+
+	/**
+	 * Notifies every registered observer that this road changed.
+	 */
+	private void notifyObservers() {
+		RoadObserver[] toNotify;
+		synchronized (observers) {
+			toNotify = observers.toArray(new RoadObserver[0]);
+		}
+		for (RoadObserver observer : toNotify)
+			observer.roadChanged(this);
+	}
+
+	/**
+	 * Returns the number of slots of the attribute store handed out at least once, a bound on the number of roads that
+	 * are not terminated. The slot of a terminated road is handed out again to a new road.
+	 */
+	public static int getAttributeSlotBound() {
+		return attributes.getSlotBound();
+	}
+
 	/**
 	 * Checks to see whether this road is terminated.
 	 */
@@ -713,8 +1021,8 @@ public abstract class Road extends Segments {
 	 * 		| new.getEndpoint1 == null && new.getEndpoint2 == null
 	 * @post Both locations connected to this road remove this road from their respective list of adjoining roads
 	 * 		| new.location1.getAdjoiningRoads.contains(this) == false && new.location2.getAdjoiningRoads.contains(this) == false
-	 * @post The list of IDs no longer contains this roads ID.
-	 * 		| new.idArray.contains(this.getID()) == false
+	 * @post This road can no longer be looked up by its ID.
+	 * 		| lookup(this.getID()) == null
 	 */
 	public void terminate() {
 		if (!this.isTerminated) {
@@ -723,7 +1031,11 @@ public abstract class Road extends Segments {
 			location2.removeAdjoiningRoad(this);
 			location1 = null;
 			location2 = null;
-			idArray.remove(this.ID);
+			roadsByID.remove(this.ID, this);
+			store = attributes.detach(slot);
+			slot = 0;
+			topologyVersion.incrementAndGet();
+			notifyObservers();
 		}
 	}
 	
@@ -738,8 +1050,8 @@ public abstract class Road extends Segments {
      * |    new.endLocation = location1
      * | else
      * |    new.directionOfRoad = true
-     * |    new.startLocation = location2
-     * |    new.endLocation = location1
+     * |    new.startLocation = location1
+     * |    new.endLocation = location2
      */
     public void swapRoadDirection() throws ClassCastException {
         if(this instanceof AlternatingRoad){
@@ -750,9 +1062,11 @@ public abstract class Road extends Segments {
         }
         else{
             directionOfRoad = true;
-            startLocation = location2;
-            endLocation = location1;
+            startLocation = location1;
+            endLocation = location2;
         }
+        topologyVersion.incrementAndGet();
+        notifyObservers();
         }
         else
         	throw new ClassCastException();
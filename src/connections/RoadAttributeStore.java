@@ -0,0 +1,253 @@
+package connections;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A class of stores holding the numeric attributes of roads outside the Java heap. Each road owns one fixed-size slot
+ * in a direct byte buffer, holding its length, speed limit, average speed, delay in each direction and blocked status
+ * in each direction, so a road object itself only holds the number of its slot. The buffers are allocated in pages of
+ * equal size, so the store grows without copying the slots it already holds and is not limited by the largest buffer
+ * a single array can address.
+ *
+ * A slot stays with its road until the road is terminated, and is then handed out again. So that the attributes of a
+ * terminated road can still be read, the road first detaches its slot: the attributes are copied into a store of their
+ * own on the Java heap, holding that one slot only.
+ *
+ * @author Michiel Van der Haegen
+ * @author Sam Haberman
+ */
+class RoadAttributeStore {
+
+	/**
+	 * The offset of the length within a slot, as an int.
+	 */
+	static final int LENGTH = 0;
+
+	/**
+	 * The offset of the speed limit within a slot, as a float.
+	 */
+	static final int SPEED_LIMIT = 4;
+
+	/**
+	 * The offset of the average road speed within a slot, as a float.
+	 */
+	static final int ROAD_SPEED = 8;
+
+	/**
+	 * The offset of the delay in the direction of the first endpoint within a slot, as a float.
+	 */
+	static final int DELAY_ONE = 12;
+
+	/**
+	 * The offset of the delay in the direction of the second endpoint within a slot, as a float.
+	 */
+	static final int DELAY_TWO = 16;
+
+	/**
+	 * The offset of the flags within a slot, as a byte.
+	 */
+	private static final int FLAGS = 20;
+
+	/**
+	 * The flag set when a road is blocked in the direction of the first endpoint.
+	 */
+	static final int BLOCKED_ONE = 1;
+
+	/**
+	 * The flag set when a road is blocked in the direction of the second endpoint.
+	 */
+	static final int BLOCKED_TWO = 2;
+
+	/**
+	 * The number of bytes in a slot, rounded up to a multiple of eight.
+	 */
+	private static final int SLOT_SIZE = 24;
+
+	/**
+	 * The number of bits of a slot number that select the slot within its page.
+	 */
+	private static final int PAGE_BITS = 14;
+
+	/**
+	 * The number of slots in a page.
+	 */
+	private static final int PAGE_SLOTS = 1 << PAGE_BITS;
+
+	/**
+	 * The pages of this store.
+	 */
+	private final ArrayList<ByteBuffer> pages = new ArrayList<>();
+
+	/**
+	 * The number of slots handed out at least once.
+	 */
+	private int slotCount = 0;
+
+	/**
+	 * The slots freed by their road, ready to be handed out again.
+	 */
+	private int[] freeSlots = new int[16];
+
+	/**
+	 * The number of free slots.
+	 */
+	private int freeCount = 0;
+
+	/**
+	 * Initialize a new empty store.
+	 */
+	RoadAttributeStore() {
+	}
+
+	/**
+	 * Initialize a new store holding the given page as its only slot, which is not handed out again.
+	 *
+	 * @param page The page holding the attributes of the slot
+	 */
+	private RoadAttributeStore(ByteBuffer page) {
+		pages.add(page);
+		slotCount = 1;
+	}
+
+	/**
+	 * Hands out a slot, with every attribute set to zero and every flag cleared.
+	 *
+	 * @return A slot that is not handed out to anyone else and was not freed since.
+	 */
+	synchronized int allocate() {
+		int slot;
+		if (freeCount > 0) {
+			slot = freeSlots[--freeCount];
+		} else {
+			slot = slotCount++;
+			if ((slot >>> PAGE_BITS) == pages.size())
+				pages.add(ByteBuffer.allocateDirect(PAGE_SLOTS * SLOT_SIZE).order(ByteOrder.nativeOrder()));
+		}
+		ByteBuffer page = getPage(slot);
+		int offset = getOffset(slot);
+		for (int position = 0; position < SLOT_SIZE; position += 8)
+			page.putLong(offset + position, 0L);
+		return slot;
+	}
+
+	/**
+	 * Frees the given slot, so it can be handed out again. The slot must not be read or written afterwards.
+	 *
+	 * @param slot The slot to free
+	 */
+	private void free(int slot) {
+		if (freeCount == freeSlots.length)
+			freeSlots = Arrays.copyOf(freeSlots, 2 * freeCount);
+		freeSlots[freeCount++] = slot;
+	}
+
+	/**
+	 * Copies the attributes of the given slot into a new store on the Java heap and frees the slot.
+	 *
+	 * @param slot The slot to detach
+	 * @return A store holding the attributes of the given slot in its slot 0, which never hands out a slot itself.
+	 */
+	synchronized RoadAttributeStore detach(int slot) {
+		ByteBuffer copy = ByteBuffer.allocate(SLOT_SIZE).order(ByteOrder.nativeOrder());
+		ByteBuffer page = getPage(slot);
+		int offset = getOffset(slot);
+		for (int position = 0; position < SLOT_SIZE; position += 8)
+			copy.putLong(position, page.getLong(offset + position));
+		free(slot);
+		return new RoadAttributeStore(copy);
+	}
+
+	/**
+	 * Returns the number of slots handed out at least once, an upper bound on the number of slots in use.
+	 */
+	synchronized int getSlotBound() {
+		return slotCount;
+	}
+
+	/**
+	 * Returns the page holding the given slot.
+	 *
+	 * @param slot The slot to look up
+	 */
+	private ByteBuffer getPage(int slot) {
+		return pages.get(slot >>> PAGE_BITS);
+	}
+
+	/**
+	 * Returns the offset of the given slot within its page.
+	 *
+	 * @param slot The slot to look up
+	 */
+	private static int getOffset(int slot) {
+		return (slot & (PAGE_SLOTS - 1)) * SLOT_SIZE;
+	}
+
+	/**
+	 * Returns the int attribute at the given offset of the given slot.
+	 *
+	 * @param slot The slot to read
+	 * @param field The offset of the attribute within the slot
+	 */
+	int getInt(int slot, int field) {
+		return getPage(slot).getInt(getOffset(slot) + field);
+	}
+
+	/**
+	 * Sets the int attribute at the given offset of the given slot to the given value.
+	 *
+	 * @param slot The slot to write
+	 * @param field The offset of the attribute within the slot
+	 * @param value The new value of the attribute
+	 */
+	void putInt(int slot, int field, int value) {
+		getPage(slot).putInt(getOffset(slot) + field, value);
+	}
+
+	/**
+	 * Returns the float attribute at the given offset of the given slot.
+	 *
+	 * @param slot The slot to read
+	 * @param field The offset of the attribute within the slot
+	 */
+	float getFloat(int slot, int field) {
+		return getPage(slot).getFloat(getOffset(slot) + field);
+	}
+
+	/**
+	 * Sets the float attribute at the given offset of the given slot to the given value.
+	 *
+	 * @param slot The slot to write
+	 * @param field The offset of the attribute within the slot
+	 * @param value The new value of the attribute
+	 */
+	void putFloat(int slot, int field, float value) {
+		getPage(slot).putFloat(getOffset(slot) + field, value);
+	}
+
+	/**
+	 * Checks whether the given flag is set in the given slot.
+	 *
+	 * @param slot The slot to read
+	 * @param flag The flag to check
+	 */
+	boolean hasFlag(int slot, int flag) {
+		return (getPage(slot).get(getOffset(slot) + FLAGS) & flag) != 0;
+	}
+
+	/**
+	 * Sets or clears the given flag in the given slot.
+	 *
+	 * @param slot The slot to write
+	 * @param flag The flag to set or clear
+	 * @param value True to set the flag, false to clear it
+	 */
+	void setFlag(int slot, int flag, boolean value) {
+		ByteBuffer page = getPage(slot);
+		int offset = getOffset(slot) + FLAGS;
+		byte flags = page.get(offset);
+		page.put(offset, (byte) (value ? (flags | flag) : (flags & ~flag)));
+	}
+}
@@ -0,0 +1,400 @@
+package connections;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A class of immutable snapshots of a road network in compressed sparse row form. Every location is numbered, and every
+ * direction in which a road can be driven is an arc between the numbers of its locations. The arcs are numbered by the
+ * location they leave from, so the arcs leaving a location form one range of arc numbers, and the arcs arriving at a
+ * location are listed in one shared array by offset. Arcs follow the direction of one-way and alternating roads at the
+ * time the snapshot was taken, and the travel time and length of each arc are copied into primitive arrays at that
+ * time as well, so a search over the snapshot never touches a road or location object until it builds its result.
+ *
+ * A snapshot never changes. When delays, blocks, lengths or speeds change, a snapshot with the current travel times
+ * can be taken from it without indexing the network again; when roads are created, terminated or swapped, a new
+ * snapshot has to be taken, which can be built from the same locations as the old one.
+ *
+ * @author Michiel Van der Haegen
+ * @author Sam Haberman
+ */
+public class RoadGraph {
+
+	/**
+	 * The locations of this graph, registered at their index.
+	 */
+	private final Location[] locations;
+
+	/**
+	 * The locations this graph was built from, as far as they were not terminated.
+	 */
+	private final Location[] seeds;
+
+	/**
+	 * The index in this graph of each location, at the dense index of the location, or -1 if it is not in this graph.
+	 */
+	private final int[] indices;
+
+	/**
+	 * The first arc leaving from each location, followed by the number of arcs.
+	 */
+	private final int[] leavingOffsets;
+
+	/**
+	 * The index of the location each arc leaves from.
+	 */
+	private final int[] arcTails;
+
+	/**
+	 * The index of the location each arc arrives at.
+	 */
+	private final int[] arcHeads;
+
+	/**
+	 * The road each arc drives along.
+	 */
+	private final Road[] arcRoads;
+
+	/**
+	 * The length of the road of each arc.
+	 */
+	private final int[] arcLengths;
+
+	/**
+	 * The travel time of each arc at the time this snapshot was taken, infinite if its road was blocked in its direction.
+	 */
+	private final float[] arcTravelTimes;
+
+	/**
+	 * The first position in the arriving arcs of each location, followed by the number of arriving arcs.
+	 */
+	private final int[] arrivingOffsets;
+
+	/**
+	 * The arcs arriving at each location, grouped by location.
+	 */
+	private final int[] arrivingArcs;
+
+	/**
+	 * The topology version of the roads at the time this graph was built.
+	 */
+	private final long topologyVersion;
+
+	/**
+	 * The metric version of the roads at the time the travel times of this graph were taken.
+	 */
+	private final long metricVersion;
+
+	/**
+	 * Initialize a new road graph consisting of the given locations, every location connected to them through a chain
+	 * of adjoining roads, and every direction in which the roads between these locations can be driven.
+	 *
+	 * @param locations
+	 * 		The locations of the network
+	 * @throws NullPointerException
+	 * 		The given collection is null or contains null
+	 * 	|	locations == null || locations.contains(null)
+	 * @post Every non-terminated location of the given collection is a location of this graph
+	 * 	|	for each location in locations:
+	 * 	|		location.isTerminated() || new.hasAsLocation(location)
+	 * @post The travel times of this graph are current
+	 * 	|	new.hasCurrentTravelTimes()
+	 */
+	public RoadGraph(Collection<Location> locations) throws NullPointerException {
+		this.topologyVersion = Road.getTopologyVersion();
+		this.metricVersion = Road.getMetricVersion();
+		this.indices = new int[Location.getIndexBound()];
+		Arrays.fill(indices, -1);
+		ArrayList<Location> found = new ArrayList<>();
+		ArrayDeque<Location> toVisit = new ArrayDeque<>();
+		for (Location location : locations) {
+			if (location == null)
+				throw new NullPointerException();
+			if (!location.isTerminated() && indices[location.getIndex()] < 0) {
+				indices[location.getIndex()] = found.size();
+				found.add(location);
+				toVisit.add(location);
+			}
+		}
+		this.seeds = found.toArray(new Location[0]);
+		ArrayList<Integer> tails = new ArrayList<>();
+		ArrayList<Integer> heads = new ArrayList<>();
+		ArrayList<Road> roads = new ArrayList<>();
+		while (!toVisit.isEmpty()) {
+			Location location = toVisit.poll();
+			for (Road road : location.getAdjoiningRoads()) {
+				Location other = road.getOppositeEndPoint(location);
+				if (indices[other.getIndex()] < 0) {
+					indices[other.getIndex()] = found.size();
+					found.add(other);
+					toVisit.add(other);
+				}
+				if (other != location && road.hasAsStartLocation(location)) {
+					tails.add(indices[location.getIndex()]);
+					heads.add(indices[other.getIndex()]);
+					roads.add(road);
+				}
+			}
+		}
+		this.locations = found.toArray(new Location[0]);
+		int count = this.locations.length;
+		int arcCount = roads.size();
+		this.leavingOffsets = new int[count + 1];
+		this.arrivingOffsets = new int[count + 1];
+		for (int position = 0; position < arcCount; position++) {
+			leavingOffsets[tails.get(position) + 1]++;
+			arrivingOffsets[heads.get(position) + 1]++;
+		}
+		for (int index = 0; index < count; index++) {
+			leavingOffsets[index + 1] += leavingOffsets[index];
+			arrivingOffsets[index + 1] += arrivingOffsets[index];
+		}
+		this.arcTails = new int[arcCount];
+		this.arcHeads = new int[arcCount];
+		this.arcRoads = new Road[arcCount];
+		this.arcLengths = new int[arcCount];
+		this.arrivingArcs = new int[arcCount];
+		int[] nextLeaving = Arrays.copyOf(leavingOffsets, count);
+		int[] nextArriving = Arrays.copyOf(arrivingOffsets, count);
+		for (int position = 0; position < arcCount; position++) {
+			int arc = nextLeaving[tails.get(position)]++;
+			arcTails[arc] = tails.get(position);
+			arcHeads[arc] = heads.get(position);
+			arcRoads[arc] = roads.get(position);
+			arcLengths[arc] = arcRoads[arc].getLength();
+			arrivingArcs[nextArriving[arcHeads[arc]]++] = arc;
+		}
+		this.arcTravelTimes = readTravelTimes();
+	}
+
+	/**
+	 * Initialize a new road graph with the locations and arcs of the given graph and the current travel times.
+	 *
+	 * @param graph The graph to take the locations and arcs from
+	 */
+	private RoadGraph(RoadGraph graph) {
+		this.topologyVersion = graph.topologyVersion;
+		this.metricVersion = Road.getMetricVersion();
+		this.locations = graph.locations;
+		this.seeds = graph.seeds;
+		this.indices = graph.indices;
+		this.leavingOffsets = graph.leavingOffsets;
+		this.arcTails = graph.arcTails;
+		this.arcHeads = graph.arcHeads;
+		this.arcRoads = graph.arcRoads;
+		this.arrivingOffsets = graph.arrivingOffsets;
+		this.arrivingArcs = graph.arrivingArcs;
+		this.arcLengths = new int[arcRoads.length];
+		for (int arc = 0; arc < arcRoads.length; arc++)
+			arcLengths[arc] = arcRoads[arc].getLength();
+		this.arcTravelTimes = readTravelTimes();
+	}
+
+	/**
+	 * Returns the current travel time of each arc of this graph, infinite if its road is blocked in its direction.
+	 */
+	private float[] readTravelTimes() {
+		float[] travelTimes = new float[arcRoads.length];
+		for (int arc = 0; arc < arcRoads.length; arc++)
+			travelTimes[arc] = arcRoads[arc].calculateTravelTimeFrom(locations[arcTails[arc]]);
+		return travelTimes;
+	}
+
+	/**
+	 * Returns the number of locations in this graph.
+	 */
+	public int getLocationCount() {
+		return locations.length;
+	}
+
+	/**
+	 * Returns the number of arcs in this graph.
+	 */
+	public int getArcCount() {
+		return arcRoads.length;
+	}
+
+	/**
+	 * Returns the location registered at the given index.
+	 *
+	 * @param index The index of the location
+	 */
+	public Location getLocation(int index) {
+		return locations[index];
+	}
+
+	/**
+	 * Checks whether the given location is a location of this graph.
+	 *
+	 * @param location The location to check
+	 */
+	public boolean hasAsLocation(Location location) {
+		if (location == null || location.getIndex() < 0 || location.getIndex() >= indices.length)
+			return false;
+		int index = indices[location.getIndex()];
+		return index >= 0 && locations[index] == location;
+	}
+
+	/**
+	 * Returns the index of the given location.
+	 *
+	 * @param location The location to look up
+	 * @throws IllegalArgumentException
+	 * 		The given location is not a location of this graph
+	 * 	|	!hasAsLocation(location)
+	 */
+	public int getIndex(Location location) throws IllegalArgumentException {
+		if (!hasAsLocation(location))
+			throw new IllegalArgumentException();
+		return indices[location.getIndex()];
+	}
+
+	/**
+	 * Returns the index of the location the given arc leaves from.
+	 *
+	 * @param arc The arc to look up
+	 */
+	public int getTail(int arc) {
+		return arcTails[arc];
+	}
+
+	/**
+	 * Returns the index of the location the given arc arrives at.
+	 *
+	 * @param arc The arc to look up
+	 */
+	public int getHead(int arc) {
+		return arcHeads[arc];
+	}
+
+	/**
+	 * Returns the road the given arc drives along.
+	 *
+	 * @param arc The arc to look up
+	 */
+	public Road getRoad(int arc) {
+		return arcRoads[arc];
+	}
+
+	/**
+	 * Returns the length of the road of the given arc at the time the travel times of this graph were taken.
+	 *
+	 * @param arc The arc to look up
+	 */
+	public int getLength(int arc) {
+		return arcLengths[arc];
+	}
+
+	/**
+	 * Returns the travel time of the given arc at the time the travel times of this graph were taken, which is infinite
+	 * if its road was blocked in its direction.
+	 *
+	 * @param arc The arc to look up
+	 * @return The travel time of the road of the arc when driving away from the tail of the arc, as it was when the
+	 * 			travel times of this graph were taken.
+	 * 	|	if (hasCurrentTravelTimes())
+	 * 	|		result == getRoad(arc).calculateTravelTimeFrom(getLocation(getTail(arc)))
+	 */
+	public float getTravelTime(int arc) {
+		return arcTravelTimes[arc];
+	}
+
+	/**
+	 * Returns the first arc leaving from the location at the given index. The arcs leaving from that location are the
+	 * arcs from this arc up to, but not including, the first leaving arc of the next location.
+	 *
+	 * @param index The index of the location, or the number of locations to get the number of arcs
+	 * @return The number of arcs leaving from locations with a smaller index.
+	 * 	|	result == card({ arc | getTail(arc) < index })
+	 */
+	public int getFirstLeavingArc(int index) {
+		return leavingOffsets[index];
+	}
+
+	/**
+	 * Returns the first position of the location at the given index in the arriving arcs. The arcs arriving at that
+	 * location are found at the positions from this one up to, but not including, the first position of the next
+	 * location.
+	 *
+	 * @param index The index of the location, or the number of locations to get the number of arcs
+	 * @return The number of arcs arriving at locations with a smaller index.
+	 * 	|	result == card({ arc | getHead(arc) < index })
+	 */
+	public int getFirstArrivingPosition(int index) {
+		return arrivingOffsets[index];
+	}
+
+	/**
+	 * Returns the arriving arc at the given position.
+	 *
+	 * @param position The position in the arriving arcs
+	 */
+	public int getArrivingArc(int position) {
+		return arrivingArcs[position];
+	}
+
+	/**
+	 * Checks whether the topology of the roads changed since this graph was built, in which case this graph no longer
+	 * reflects the road network.
+	 *
+	 * @return True if a road was created, terminated or swapped since this graph was built.
+	 * 	|	result == (Road.getTopologyVersion() != topologyVersion)
+	 */
+	public boolean isOutdated() {
+		return Road.getTopologyVersion() != topologyVersion;
+	}
+
+	/**
+	 * Checks whether the travel times of this graph are still the travel times of its roads.
+	 *
+	 * @return True if no length, speed, delay or block of a road changed since the travel times of this graph were
+	 * 			taken, and this graph is not outdated.
+	 * 	|	result == (!isOutdated() && Road.getMetricVersion() == metricVersion)
+	 */
+	public boolean hasCurrentTravelTimes() {
+		return !isOutdated() && Road.getMetricVersion() == metricVersion;
+	}
+
+	/**
+	 * Returns a new road graph of the current roads, built from the locations this graph was built from that are not
+	 * terminated by now.
+	 *
+	 * @return A road graph of the network of the locations this graph was built from.
+	 * 	|	!result.isOutdated() && result.hasCurrentTravelTimes()
+	 */
+	public RoadGraph rebuild() {
+		return new RoadGraph(Arrays.asList(seeds));
+	}
+
+	/**
+	 * Returns a road graph with the locations and arcs of this graph and the current travel times of their roads. The
+	 * arrays describing the locations and arcs are shared, so only the travel times and lengths are read again. Arcs
+	 * of which the road can no longer be driven in their direction get an infinite travel time.
+	 *
+	 * @return This graph if its travel times are current, otherwise a new graph with the same locations and arcs whose
+	 * 			travel times are current unless this graph is outdated.
+	 * 	|	(result.hasCurrentTravelTimes() || isOutdated()) && result.getArcCount() == getArcCount() &&
+	 * 	|	for each arc in 0..getArcCount()-1: result.getRoad(arc) == getRoad(arc)
+	 */
+	public RoadGraph withCurrentTravelTimes() {
+		if (hasCurrentTravelTimes())
+			return this;
+		return new RoadGraph(this);
+	}
+
+	/**
+	 * Builds the route starting in the given location that drives along the given arcs in the given order.
+	 *
+	 * @param origin The start location of the route
+	 * @param arcs The arcs of the route
+	 * @return A route from the origin consisting of the roads of the given arcs.
+	 */
+	public Route buildRoute(Location origin, int... arcs) {
+		Object[] roads = new Object[arcs.length];
+		for (int position = 0; position < arcs.length; position++)
+			roads[position] = arcRoads[arcs[position]];
+		return new Route(origin, roads);
+	}
+}
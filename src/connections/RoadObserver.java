@@ -0,0 +1,20 @@
+package connections;
+
+/**
+ * An interface for objects that follow changes to the roads of the network: the creation, termination and change of
+ * direction of a road, and changes to its length, speeds, delays and blocked status.
+ * Observers are told which road changed, not how; they are notified while the change is made, possibly before the
+ * road is fully initialized, so they should only record the road and inspect it later.
+ *
+ * @author Michiel Van der Haegen
+ * @author Sam Haberman
+ */
+interface RoadObserver {
+
+	/**
+	 * Records that the given road changed, possibly in the directions in which it can be driven.
+	 *
+	 * @param road The road that changed
+	 */
+	void roadChanged(Road road);
+}
@@ -1,7 +1,11 @@
 package connections;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 /**
  *  A class of Routes where every route has a start location and a list of 0 to n connecting road segments in it.
@@ -13,9 +17,63 @@ import java.util.Arrays;
 public class Route extends Segments{
 	
 	/**
-	 * Variable registering the set of roadSegments of the route
+	 * Variable registering the road segments of the route, of which only the first segmentCount are in use. The array
+	 * doubles in size when it is full, so that adding a segment at the end takes amortized constant time.
 	 */
 	private Object[] roadSegments;
+
+	/**
+	 * Variable registering the number of road segments of the route
+	 */
+	private int segmentCount;
+
+	/**
+	 * Variable registering, for each road segment of the route, the location in which the route enters that segment
+	 */
+	private Location[] entryLocations;
+
+	/**
+	 * Map registering, for each road or route, the routes that have it as a direct segment and how many times they
+	 * have it. Both the segments and the routes are held weakly, so that routes no longer in use can be garbage collected.
+	 * The map is shared by all routes, and only accessed while holding its lock.
+	 */
+	private static final WeakHashMap<Segments, WeakHashMap<Route, Integer>> containingRoutes = new WeakHashMap<>();
+
+	/**
+	 * The observer that clears the caches of every route containing a road when that road changes
+	 */
+	private static final RoadObserver cacheInvalidator = Route::invalidateRoutesContaining;
+
+	static {
+		Road.addObserver(cacheInvalidator);
+	}
+
+	/**
+	 * The cached sequence of locations visited by this route, null if it is not computed or no longer current
+	 */
+	private Location[] locationSequence = null;
+
+	/**
+	 * The cached total length of this route
+	 */
+	private int totalLength;
+
+	/**
+	 * The cached total travel time of the segments of this route that can be driven in its direction, kept in double
+	 * precision so that adding and removing segments does not let it drift
+	 */
+	private double totalTravelTime;
+
+	/**
+	 * The cached number of segments of this route that cannot be driven in its direction, so that adding or removing
+	 * such a segment does not make the totals be computed again
+	 */
+	private int unreachableSegmentCount;
+
+	/**
+	 * Variable registering whether the cached totals of this route are current
+	 */
+	private boolean hasTotals = false;
 	
 	/**
 	 * Initialize a new Route with given start location and collection of road segments.
@@ -41,89 +99,195 @@ public class Route extends Segments{
 		this.startLocation = startLocation;
 		if (!areValidSegments(segments))
 			throw new IllegalArgumentException();
-		roadSegments = segments.clone();
+		roadSegments = Arrays.copyOf(segments, segments.length, Object[].class);
+		segmentCount = segments.length;
+		entryLocations = new Location[segments.length];
+		locateEntries(0, startLocation);
+		for (Object segment : segments)
+			registerSegment(segment);
+	}
+
+	/**
+	 * Returns every route that contains the given road, as a direct segment or as a segment of a nested route at any
+	 * depth.
+	 *
+	 * @param road
+	 * 		The road to look up
+	 * @throws NullPointerException
+	 * 		The given road is null
+	 * 	|	road == null
+	 * @return The set of routes reachable from the given road by repeatedly going from a segment to a route that has it
+	 * 			as one of its segments.
+	 * 	|	for each route in result:
+	 * 	|		Arrays.asList(route.getRouteSegments()).contains(road) ||
+	 * 	|		(for some segment in route.getRouteSegments(): getRoutesContaining(road).contains(segment))
+	 */
+	public static Set<Route> getRoutesContaining(Road road) throws NullPointerException {
+		if (road == null)
+			throw new NullPointerException();
+		return collectRoutesContaining(road);
 	}
 
 	/**
-	 * Checks whether the Route contains itself in one of its segments or nested segments.
-	 * @param segment The segment of the Route to check
+	 * Returns every route that contains the given segment directly or through nested routes.
+	 *
+	 * @param segment The road or route to look up
+	 */
+	private static Set<Route> collectRoutesContaining(Segments segment) {
+		HashSet<Route> result = new HashSet<>();
+		ArrayDeque<Segments> toVisit = new ArrayDeque<>();
+		toVisit.add(segment);
+		synchronized (containingRoutes) {
+			while (!toVisit.isEmpty()) {
+				WeakHashMap<Route, Integer> routes = containingRoutes.get(toVisit.poll());
+				if (routes == null)
+					continue;
+				for (Route route : routes.keySet()) {
+					if (result.add(route))
+						toVisit.add(route);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Registers that this route has the given segment as one more of its direct segments.
+	 *
+	 * @param segment The segment added to this route
+	 */
+	private void registerSegment(Object segment) {
+		synchronized (containingRoutes) {
+			WeakHashMap<Route, Integer> routes = containingRoutes.get(segment);
+			if (routes == null) {
+				routes = new WeakHashMap<>();
+				containingRoutes.put((Segments) segment, routes);
+			}
+			routes.merge(this, 1, Integer::sum);
+		}
+	}
+
+	/**
+	 * Registers that this route has the given segment as one less of its direct segments.
+	 *
+	 * @param segment The segment removed from this route
+	 */
+	private void unregisterSegment(Object segment) {
+		synchronized (containingRoutes) {
+			WeakHashMap<Route, Integer> routes = containingRoutes.get(segment);
+			if (routes == null)
+				return;
+			if (routes.merge(this, -1, Integer::sum) <= 0)
+				routes.remove(this);
+			if (routes.isEmpty())
+				containingRoutes.remove(segment);
+		}
+	}
+
+	/**
+	 * Clears the cached locations and totals of every route containing the given road.
+	 *
+	 * @param road The road that changed
+	 */
+	private static void invalidateRoutesContaining(Road road) {
+		for (Route route : collectRoutesContaining(road))
+			route.clearCaches();
+	}
+
+	/**
+	 * Clears the cached locations and totals of this route.
+	 */
+	private void clearCaches() {
+		locationSequence = null;
+		hasTotals = false;
+	}
+
+	/**
+	 * Checks whether the given segment is this route or one of the segments of this route or of its nested routes.
+	 * Nested routes may be shared by several routes, so every nested route is searched at most once, and the check
+	 * takes time proportional to the number of routes nested in this route rather than to the number of ways they
+	 * are nested.
+	 *
+	 * @param segment The segment to look for
 	 * @return True if the given segment is equal to the Route
 	 * |	if(segment ==this)
 	 * |		return true
-	 * @return True if a sub segment of the route is a subroute that contains the original Route
+	 * @return True if the given segment is a segment of this route or of a route nested in it at any depth
 	 * |		for each object in this.getRouteSegments()
-	 * |			if(((Segments) object).containsItself(segment))
+	 * |			if(object == segment || ((Segments) object).containsItself(segment))
 	 * |				return True
 	 */
 	@Override
 	public boolean containsItself(Object segment) {
-		if(segment==this)
+		if (segment == this)
 			return true;
-		for(Object array1: this.getRouteSegments()) {
-				if(((Segments) array1).containsItself(segment))
+		HashSet<Route> visited = new HashSet<>();
+		ArrayDeque<Route> toVisit = new ArrayDeque<>();
+		visited.add(this);
+		toVisit.add(this);
+		while (!toVisit.isEmpty()) {
+			Route route = toVisit.poll();
+			for (int position = 0; position < route.segmentCount; position++) {
+				Object item = route.roadSegments[position];
+				if (item == segment)
 					return true;
-			}				
+				if (item instanceof Route && visited.add((Route) item))
+					toVisit.add((Route) item);
+			}
+		}
 		return false;
 	}
 
 
 	/**
 	 * Checks to see if the given road segments are valid, as well as
-	 * recording the last location visited as end location for the route.
+	 * recording the last location visited as end location for the route. Every segment is checked with the same rule
+	 * as a segment added to the end of the route, so a route can only be built from segments that can each be started
+	 * from the location where the segment before it ends.
 	 * @param segments The road segments to check
-	 * @return True if each road segment in the given segments connects in a unbroken line where the location that is not the
-	 * 			start location for the first road segment is the same as a location in the next segment where in turn the second
-	 * 			segments other location is in turn the same as one of the locations in the third road segment until there is a final
-	 * 			location in the last road segment where the road ends.
-	 * 		|	result == True if
-	 * 		|	for 0..segments.length-1
-	 *		|		if(((Segments) segments[i]).getStartLocations().length==1){
-	 *		|			assert (((Segments) segments[i]).getStartLocations()[0] == startLocation || ((Segments) segments[i]).getEndLocations()[0] == startLocation);}
-	 *		|		else {
-	 *		|			assert (((Segments) segments[i]).getStartLocations()[0] == startLocation || ((Segments) segments[i]).getEndLocations()[1] == startLocation);}
-	 *		|		startLocation = ((Segments) segments[i]).getOtherLocation(startLocation);
+	 * @return True if each road segment in the given segments can be started from the location where the segment
+	 * 			before it ends, starting from the start location of this route.
+	 * 		|	let tracker = getStartLocations()[0] in
+	 * 		|	result == for each segment in segments:
+	 * 		|		canStartFrom(segment, tracker) && (tracker = ((Segments) segment).getOtherLocation(tracker))
 	 * @return True if there are zero road segments given
 	 * 		|	if segments.length ==0
 	 * 		|	result == True
-	 * @return True if there is one road segment, and one of the segments locations is the start location of the route.
-	 * 		|	if segments.length ==1
-	 * 		|		result == Arrays.asList(((Segments) segments[0]).getStartLocations()).contains(startLocation)
-	 * @post The final location visited for each Route is the end location of the route.
+	 * @post If the given segments are valid, the final location visited is the end location of the route.
 	 * 	| 	 if segments.length == 0 then
 	 * 	|		new.getEndLocation() == startLocation
-	 * 	|	 else if roads.length ==1 then
-	 * 	|	 	new.getEndLocation() == ((Segments) segments[0]).getOtherLocation(startLocation)
 	 * 	|	 else
-	 * 	|	 	if segments[-1].getEndPoint1() == segments[-2].getEndPoint2() || segments[-1].getEndPoint1() == segments[-2].getEndPoint2()
-	 * 	|	 		then new.getEndLocation() == segments[-1].getEndPoint2()
-	 * 	|	 	else
-	 *  |	 		new.getEndLocation() == segments[-1].getEndPoint1()
+	 * 	|	 	new.getEndLocation() == the location reached after driving every segment from startLocation
 	 */
 	public boolean areValidSegments(Object... segments) {
-		Location startLocation = this.startLocation;
-		if (segments.length == 0) {
-			this.endLocation=startLocation;
-			return true;
-		}
-		if(Arrays.asList(((Segments) segments[0]).getStartLocations()).contains(startLocation)){
-			if(segments.length == 1) {
-				this.endLocation=((Segments) segments[0]).getOtherLocation(startLocation);
-				return true;
-			}
-		startLocation = ((Segments) segments[0]).getOtherLocation(startLocation);
-		for (int i = 1; i <= segments.length - 1; i++) {
-			if(((Segments) segments[i]).getStartLocations().length==1){
-				assert (((Segments) segments[i]).getStartLocations()[0] == startLocation || ((Segments) segments[i]).getEndLocations()[0] == startLocation);
-			}
-			else {
-				assert (((Segments) segments[i]).getStartLocations()[0] == startLocation || ((Segments) segments[i]).getEndLocations()[1] == startLocation);
-			}
-			startLocation = ((Segments) segments[i]).getOtherLocation(startLocation);
+		Location tracker = this.startLocation;
+		for (Object segment : segments) {
+			if (segment == null || !canStartFrom(segment, tracker))
+				return false;
+			tracker = ((Segments) segment).getOtherLocation(tracker);
 		}
-		this.endLocation=startLocation;
+		this.endLocation = tracker;
 		return true;
 	}
-	return false;	
+
+	/**
+	 * Checks whether the given segment can be driven next by a route that has reached the given location.
+	 *
+	 * @param segment The segment to check
+	 * @param location The location reached by the route
+	 * @return True if the given location is one of the start locations of the segment, or if the segment is an
+	 * 			alternating road with a direction schedule that has the given location as endpoint, since such a road
+	 * 			leads away from each of its endpoints at some time of day.
+	 * 		|	result == Arrays.asList(((Segments) segment).getStartLocations()).contains(location) ||
+	 * 		|		(segment instanceof AlternatingRoad && ((AlternatingRoad) segment).getDirectionSchedule() != null &&
+	 * 		|		Arrays.asList(((AlternatingRoad) segment).getEndPoints()).contains(location))
+	 */
+	private static boolean canStartFrom(Object segment, Location location) {
+		if (((Segments) segment).hasAsStartLocation(location))
+			return true;
+		if (segment instanceof AlternatingRoad && ((AlternatingRoad) segment).getDirectionSchedule() != null)
+			return ((AlternatingRoad) segment).getEndPoint1() == location || ((AlternatingRoad) segment).getEndPoint2() == location;
+		return false;
 	}
 
 	/**
@@ -167,38 +331,86 @@ public class Route extends Segments{
 	 */
 	@Override
 	public Object[] getRouteSegments() {
-		return roadSegments.clone();
+		return Arrays.copyOf(roadSegments, segmentCount);
+	}
+
+	/**
+	 * Records the location in which this route enters each of its segments from the given position onwards.
+	 *
+	 * @param position The position of the first segment to record
+	 * @param location The location in which this route enters the segment at the given position
+	 * @return The location in which this route ends.
+	 */
+	private Location locateEntries(int position, Location location) {
+		for (; position < segmentCount; position++) {
+			entryLocations[position] = location;
+			location = ((Segments) roadSegments[position]).getOtherLocation(location);
+		}
+		return location;
+	}
+
+	/**
+	 * Makes room for at least the given number of segments, doubling the room of this route if it is too small.
+	 *
+	 * @param capacity The number of segments to make room for
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > roadSegments.length) {
+			int newCapacity = Math.max(capacity, 2 * roadSegments.length);
+			roadSegments = Arrays.copyOf(roadSegments, newCapacity);
+			entryLocations = Arrays.copyOf(entryLocations, newCapacity);
+		}
 	}
 
 	/**
-	 * Adds a road segment to the route if it connects to a previous road segment already in the list.
+	 * Adds a road segment at the end of the route. Only the new segment is checked against the current end location,
+	 * so adding a segment takes amortized constant time apart from the check that the route does not contain itself.
 	 *
 	 * @param segment The road segment to add
 	 * @throws IllegalArgumentException
 	 * 		The given road is null
 	 * 	|	road == null
-	 * @post The given road segment is added to the routes list of road segments, assuming it is a valid list after addition
-	 * 	|	if areValidSegments(roadSegments)
-	 * 	|		new.roadSegments.contains(road)\
-	 * @post The new updated Route does not contain itself(is acyclic)
-	 * |	for each segment in the new updated Route
-	 * |		assert(!containsItself(segment))
+	 * @throws IllegalArgumentException
+	 * 		The given segment cannot be started from the end location of this route
+	 * 	|	!Arrays.asList(((Segments) segment).getStartLocations()).contains(getEndLocation()) &&
+	 * 	|		!(segment instanceof AlternatingRoad && ((AlternatingRoad) segment).getDirectionSchedule() != null &&
+	 * 	|		Arrays.asList(((AlternatingRoad) segment).getEndPoints()).contains(getEndLocation()))
+	 * @throws IllegalArgumentException
+	 * 		The given segment is this route or a route containing this route, so that adding it would make this route
+	 * 		contain itself
+	 * 	|	((Segments) segment).containsItself(this)
+	 * @post The given road segment is the last segment of this route
+	 * 	|	new.getRouteSegments().length == getRouteSegments().length + 1 &&
+	 * 	|	new.getRouteSegments()[getRouteSegments().length] == segment
+	 * @post The end location of this route is the other location of the given segment
+	 * 	|	new.getEndLocation() == ((Segments) segment).getOtherLocation(getEndLocation())
 	 */
 	public void addRouteSegment(Object segment) throws IllegalArgumentException {
 		if (segment == null)
 			throw new IllegalArgumentException();
-		ArrayList<Object> list = new ArrayList<Object>(Arrays.asList(roadSegments));
-		list.add(segment);
-		roadSegments = new Road[list.size()];
-		list.toArray(roadSegments);
-		assert (areValidSegments(roadSegments));
-		for(Object item: roadSegments) {
-			assert(!containsItself(item));
-		}
+		if (!canStartFrom(segment, endLocation))
+			throw new IllegalArgumentException();
+		if (((Segments) segment).containsItself(this))
+			throw new IllegalArgumentException();
+		boolean hadCurrentTotals = hasTotals;
+		Location entry = endLocation;
+		ensureCapacity(segmentCount + 1);
+		roadSegments[segmentCount] = segment;
+		entryLocations[segmentCount] = entry;
+		segmentCount++;
+		endLocation = ((Segments) segment).getOtherLocation(entry);
+		registerSegment(segment);
+		clearCaches();
+		for (Route route : collectRoutesContaining(this))
+			route.clearCaches();
+		if (hadCurrentTotals)
+			updateTotals(((Segments) segment).getLength(), getTravelTime(segment, entry));
 	}
 
 	/**
-	 * Remove the segment at the given index from the sequence of road segments for this route.
+	 * Remove the segment at the given index from the sequence of road segments for this route. Removing the last
+	 * segment takes constant time. Removing another segment only checks the segments after it again, and not even
+	 * those if the removed segment ends where it starts.
 	 *
 	 * @param  index
 	 *         The index of the segment to be removed.
@@ -206,36 +418,55 @@ public class Route extends Segments{
 	 *         decreased by 1.
 	 *       | new.getRouteSegments().length = getRouteSegments().length - 1
 	 * @post   The total length of this route is decreased with the length of the segment removed
-	 * 		| new.getTotalLength() == getTotalLength() - roadSegment[index].getLength()
-	 * @post   This route no longer has the segment at the given index as
-	 *         one of its segments.
-	 *       | ! new.getRouteSegments().contains(roadSegment[index])
+	 * 		| new.getLength() == getLength() - getRouteSegments()[index].getLength()
 	 * @post   All segments registered at an index beyond the index at
 	 *         which the removed segment was registered, are shifted
 	 *         one position to the left.
-	 *       | for each I,J in 0..getTotalLength():
-	 *       |   if ( (roadSegments[I] == roadSegments[index] and (I < J) )
-	 *       |     then new.roadSegments[J-1] == roadSegments[J]
-	 * @post The new array of road segments for the route is a valid list of road segments
-	 * 		 | areValidSegments(roadSegments)
+	 *       | for each J in index+1..getRouteSegments().length-1:
+	 *       |   new.getRouteSegments()[J-1] == getRouteSegments()[J]
 	 * @throws IndexOutOfBoundsException
 	 *         If the chosen index number is greater than or equal to the number of road segments
 	 *         in the route or less than 0
-	 *       | (index < 0) || (index >= roadSegments.length)
-	 *
+	 *       | (index < 0) || (index >= getRouteSegments().length)
+	 * @throws IllegalArgumentException
+	 *         One of the segments after the removed segment can no longer be started from the location where the
+	 *         segment before it ends
 	 */
-	public void removeRouteSegment(int index) throws IndexOutOfBoundsException {
-		if (index < 0 || index >= roadSegments.length)
+	public void removeRouteSegment(int index) throws IndexOutOfBoundsException, IllegalArgumentException {
+		if (index < 0 || index >= segmentCount)
 			throw new IndexOutOfBoundsException();
-		ArrayList<Object> list = new ArrayList<Object>(Arrays.asList(roadSegments));
-		list.remove(index);
-		roadSegments = new Road[list.size()];
-		list.toArray(roadSegments);
-		assert (areValidSegments(roadSegments));
+		Object segment = roadSegments[index];
+		Location entry = entryLocations[index];
+		boolean keepsLaterSegments = index == segmentCount - 1 || entryLocations[index + 1] == entry;
+		if (!keepsLaterSegments) {
+			Location tracker = entry;
+			for (int position = index + 1; position < segmentCount; position++) {
+				if (!canStartFrom(roadSegments[position], tracker))
+					throw new IllegalArgumentException();
+				tracker = ((Segments) roadSegments[position]).getOtherLocation(tracker);
+			}
+		}
+		boolean hadCurrentTotals = hasTotals && keepsLaterSegments;
+		System.arraycopy(roadSegments, index + 1, roadSegments, index, segmentCount - index - 1);
+		System.arraycopy(entryLocations, index + 1, entryLocations, index, segmentCount - index - 1);
+		segmentCount--;
+		roadSegments[segmentCount] = null;
+		entryLocations[segmentCount] = null;
+		if (index == segmentCount)
+			endLocation = entry;
+		else if (!keepsLaterSegments)
+			endLocation = locateEntries(index, entry);
+		unregisterSegment(segment);
+		clearCaches();
+		for (Route route : collectRoutesContaining(this))
+			route.clearCaches();
+		if (hadCurrentTotals)
+			updateTotals(-((Segments) segment).getLength(), -getTravelTime(segment, entry));
 	}
 
 	/**
-	 * Returns the total length of the road segments in this route.
+	 * Returns the total length of the road segments in this route. The total is kept between calls, and only computed
+	 * again after one of its roads changed or a segment was added to or removed from it or one of its nested routes.
 	 *
 	 * @return the sum of lengths of all roads and subroutes that are a part of this Route.
 	 *	| int length = 0
@@ -248,99 +479,230 @@ public class Route extends Segments{
 	 */
 	@Override
 	public int getLength() {
-		int length = 0;
-		for (Object road : roadSegments) {
-			length += ((Segments) road).getLength();
+		if (!hasTotals)
+			computeTotals();
+		return totalLength;
+	}
+
+	/**
+	 * Returns the total travel time of this route given the current delays and blocks, driving each nested route in the
+	 * direction in which it is entered. The total is kept between calls like the total length.
+	 *
+	 * @return The sum of the travel times of all segments, each driven away from the location where the segment before
+	 * 			it ends, or infinity if one of the roads cannot be driven in that direction.
+	 * 	|	let tracker = getStartLocations()[0], time = 0 in
+	 * 	|	for each segment in getRouteSegments():
+	 * 	|		time += (segment instanceof Road ? segment.calculateTravelTimeFrom(tracker) :
+	 * 	|			total travel time of segment driven from tracker)
+	 * 	|		tracker = segment.getOtherLocation(tracker)
+	 * 	|	result == time
+	 */
+	public float getTravelTime() {
+		if (!hasTotals)
+			computeTotals();
+		if (unreachableSegmentCount > 0)
+			return Float.POSITIVE_INFINITY;
+		return (float) totalTravelTime;
+	}
+
+	/**
+	 * Computes the totals of this route from its segments.
+	 *
+	 * @post The totals of this route are current
+	 */
+	private void computeTotals() {
+		totalLength = 0;
+		totalTravelTime = 0.0;
+		unreachableSegmentCount = 0;
+		Location tracker = startLocation;
+		for (int position = 0; position < segmentCount; position++) {
+			Object segment = roadSegments[position];
+			updateTotals(((Segments) segment).getLength(), getTravelTime(segment, tracker));
+			tracker = ((Segments) segment).getOtherLocation(tracker);
 		}
-		return length;
+		hasTotals = true;
+	}
+
+	/**
+	 * Adds the given length and travel time to the totals of this route, which were current before its last change. A
+	 * positive infinite travel time counts one more segment that cannot be driven, a negative infinite travel time
+	 * one less.
+	 *
+	 * @param length The length to add
+	 * @param travelTime The travel time to add
+	 * @post The totals of this route are current
+	 */
+	private void updateTotals(int length, double travelTime) {
+		totalLength += length;
+		if (travelTime == Double.POSITIVE_INFINITY)
+			unreachableSegmentCount++;
+		else if (travelTime == Double.NEGATIVE_INFINITY)
+			unreachableSegmentCount--;
+		else
+			totalTravelTime += travelTime;
+		hasTotals = true;
 	}
 
 	/**
-	 * Checks to see if a route is traversable.
+	 * Returns the travel time of this route driven in the given direction, without using the cached totals.
 	 *
-	 * @return Status of route checking whether each road segment in the route is not blocked in the
-	 * direction being traveled.
+	 * @param backwards True to drive this route from its end location back to its start location
+	 * @return The sum of the travel times of the segments in the given direction, or infinity if one of the roads
+	 * 			cannot be driven in that direction.
+	 */
+	private double calculateTravelTime(boolean backwards) {
+		double time = 0.0;
+		Location tracker = backwards ? endLocation : startLocation;
+		for (int position = 0; position < segmentCount && time != Double.POSITIVE_INFINITY; position++) {
+			Object segment = roadSegments[backwards ? segmentCount - 1 - position : position];
+			time += getTravelTime(segment, tracker);
+			tracker = ((Segments) segment).getOtherLocation(tracker);
+		}
+		return time;
+	}
+
+	/**
+	 * Returns the travel time of the given segment when it is entered from the given location.
+	 *
+	 * @param segment The road or route to drive
+	 * @param location The location the segment is entered from
+	 * @return The travel time of the road away from the given location if the segment is a road, the total travel time
+	 * 			of the route in the direction in which it is entered if the segment is a route that starts or ends in the
+	 * 			given location, and infinity otherwise.
+	 */
+	private static double getTravelTime(Object segment, Location location) {
+		if (segment instanceof Road)
+			return ((Road) segment).calculateTravelTimeFrom(location);
+		Route route = (Route) segment;
+		if (location == route.startLocation)
+			return route.getTravelTime();
+		if (location == route.endLocation)
+			return route.calculateTravelTime(true);
+		return Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Checks to see if a route is traversable. Segments that are routes themselves are checked road by road, in the
+	 * direction in which they are driven. The check runs in time linear in the number of roads and allocates nothing.
+	 *
+	 * @return Status of route checking whether each road segment in the route, and in each nested route, is not blocked
+	 * in the direction being traveled. A road that currently leads towards the location it is entered from, such as an
+	 * alternating road with a direction schedule, counts as blocked.
 	 * 	|	result == True if
 	 * 			for 0..roadSegments.length-1
+	 * 				roadSegments[i].hasAsStartLocation(locationList.get(i))
 	 * 				if (locationList.get(i) == roadSegments[i].getEndPoint1()
 	 * 					! roadSegments[i].isBlockedDirectionEndPointTwo()
 	 * 				if (locationList.get(i) == roadSegments[i].getEndPoint2()
 	 * 					! roadSegments[i].isBlockedDirectionEndPointOne()
+	 * @throws IllegalStateException
+	 * 		A segment no longer starts or ends in the location where the segment before it ends, because a nested
+	 * 		route changed
 	 */
-	public boolean isTraversable() {
-		for(int i=0;i<=roadSegments.length-1;i++) {
-			if(getAllLocations()[i]==((Road) roadSegments[i]).getEndPoint1()) {
-				if(((Road) roadSegments[i]).isBlockedDirectionEndPointTwo())
+	public boolean isTraversable() throws IllegalStateException {
+		return isTraversableFrom(startLocation, false);
+	}
+
+	/**
+	 * Checks whether the segments of this route are not blocked when driving this route from the given location. A road
+	 * that currently leads towards the location it is entered from counts as blocked.
+	 *
+	 * @param location The location this route is entered from, its start location or its end location
+	 * @param backwards True if this route is entered from its end location and driven back to its start location
+	 * @throws IllegalStateException
+	 * 		A segment no longer starts or ends in the location where the segment before it ends
+	 */
+	private boolean isTraversableFrom(Location location, boolean backwards) throws IllegalStateException {
+		Location tracker = location;
+		for (int position = 0; position < segmentCount; position++) {
+			Object segment = roadSegments[backwards ? segmentCount - 1 - position : position];
+			if (segment instanceof Route) {
+				Route route = (Route) segment;
+				if (tracker != route.startLocation && tracker != route.endLocation)
+					throw new IllegalStateException();
+				if (!route.isTraversableFrom(tracker, tracker != route.startLocation))
 					return false;
-			}
-			if(getAllLocations()[i]==((Road) roadSegments[i]).getEndPoint2()) {
-				if(((Road) roadSegments[i]).isBlockedDirectionEndPointOne())
+			} else {
+				Road road = (Road) segment;
+				if (tracker != road.getEndPoint1() && tracker != road.getEndPoint2())
+					throw new IllegalStateException();
+				if (!road.hasAsStartLocation(tracker))
 					return false;
-			}	
+				if (tracker == road.getEndPoint1() && road.isBlockedDirectionEndPointTwo())
+					return false;
+				if (tracker == road.getEndPoint2() && road.isBlockedDirectionEndPointOne())
+					return false;
+			}
+			tracker = ((Segments) segment).getOtherLocation(tracker);
 		}
 		return true;
 	}
 	
 	/**
-	 * Returns an array of all the locations that are visited when traveling through this route
+	 * Returns an array of all the locations that are visited when traveling through this route. The locations are
+	 * computed once and kept until one of its roads changes, or a segment is added to or removed from it or one of its
+	 * nested routes.
 	 *
 	 * @return An array consisting of just the start location of the route if the route has no segments.
 	 * 	|	if (roadSegments.length ==0)
 	 * 	|		new.getAllLocations() == [startLocation]
 	 *
-	 * @return An array consisting of the start and end location of the given route if it has only one segment whether
-	 * 			it is a road or a route
-	 * 	|	if (roadSegments.length ==1)
-	 * 	|		if (roadSegments[0].getClass() == Route.class)
-	 * 	|			return ((Route) roadSegments[0].getAllLocations()
-	 * 	|		else
-	 * 	|			new.getAllLocations() == [startLocation,endLocation]
-	 *
-	 * @return An array consisting of each location visited in order during the route if the route has more than 1 segment
-	 * |	ArrayList<Object> list = new ArrayList<Object>();
+	 * @return An array consisting of each location visited in order during the route, in which each nested route
+	 * 			contributes every location it visits after the location it is entered from, in the direction in which it
+	 * 			is driven.
+	 * |	ArrayList<Location> list = new ArrayList<Location>();
 	 * |	Location tracker = this.startLocation;
 	 * |	list.add(tracker);
-	 * |	for each segment in roadSegments.length -1
-	 * |		if (roadSegments[i].getClass() == Route.class)
-	 * |			ArrayList<Location> sublist = new ArrayList<Location>()
-	 * |			sublist.addAll(Arrays.asList(((Route) roadSegments[0]).getAllLocations()))
-	 * |			sublist.remove(0)
-	 * |			list.addAll(sublist)
-	 * |        else
-	 * |			tracker = ((Segments) roadSegments[i]).getOtherLocation(tracker)
+	 * |	for each segment in roadSegments
+	 * |		if (segment instanceof Route)
+	 * |			sublist = segment.getAllLocations(), reversed if tracker != segment.getStartLocations()[0]
+	 * |			list.addAll(sublist without its first location)
+	 * |		tracker = ((Segments) segment).getOtherLocation(tracker)
+	 * |        if (!(segment instanceof Route))
 	 * |			list.add(tracker)
-	 * |	Location[] array = new Location[list.size()];
-	 * |	list.toArray(array);
-	 * |	return array;
+	 * |	return list.toArray()
+	 * @throws IllegalStateException
+	 * 		A nested route no longer starts or ends in the location where the segment before it ends
 	 */
-	public Location[] getAllLocations() {
-		ArrayList<Object> list = new ArrayList<Object>();
-		Location tracker = this.startLocation;
-		list.add(tracker);
-		if (roadSegments.length == 0) {
-			
-		} else if (roadSegments.length == 1) {
-			if (roadSegments[0].getClass() == Route.class) {
-				return ((Route) roadSegments[0]).getAllLocations();
-			} else {
-				list.add(getOtherLocation(tracker));
-			}
-		} else { 
-			for (int i = 0; i <= roadSegments.length - 1; i++) {
-				if (roadSegments[i].getClass() == Route.class) {
-					ArrayList<Location> sublist = new ArrayList<Location>();
-					sublist.addAll(Arrays.asList(((Route) roadSegments[0]).getAllLocations()));
-					sublist.remove(0);
-					list.addAll(sublist);
+	public Location[] getAllLocations() throws IllegalStateException {
+		return getLocationSequence().clone();
+	}
+
+	/**
+	 * Returns the cached sequence of locations visited by this route, computing it again if it is outdated.
+	 * The returned array is shared and must not be modified.
+	 *
+	 * @throws IllegalStateException
+	 * 		A nested route no longer starts or ends in the location where the segment before it ends
+	 */
+	private Location[] getLocationSequence() throws IllegalStateException {
+		if (locationSequence == null) {
+			ArrayList<Location> list = new ArrayList<Location>();
+			list.add(startLocation);
+			Location tracker = startLocation;
+			for (int index = 0; index < segmentCount; index++) {
+				Object segment = roadSegments[index];
+				if (segment instanceof Route) {
+					Route route = (Route) segment;
+					Location[] sublist = route.getLocationSequence();
+					if (tracker == route.startLocation) {
+						for (int position = 1; position < sublist.length; position++)
+							list.add(sublist[position]);
+					} else if (tracker == route.endLocation) {
+						for (int position = sublist.length - 2; position >= 0; position--)
+							list.add(sublist[position]);
+					} else {
+						throw new IllegalStateException();
+					}
+					tracker = route.getOtherLocation(tracker);
 				} else {
-					tracker = ((Segments) roadSegments[i]).getOtherLocation(tracker);
+					tracker = ((Segments) segment).getOtherLocation(tracker);
 					list.add(tracker);
 				}
 			}
+			locationSequence = list.toArray(new Location[list.size()]);
 		}
-		Location[] array = new Location[list.size()];
-		list.toArray(array);
-		return array;
+		return locationSequence;
 	}
 
 	/**
@@ -361,13 +723,14 @@ public class Route extends Segments{
 	public String toString() {
 		String string1 = new String("This route has the following properties:"+"\n"+"It connects these segments: ");
 		String segments = ((Road) roadSegments[0]).getID();
-		for(int i = 1; i < roadSegments.length; i++) {
+		for(int i = 1; i < segmentCount; i++) {
 			segments = segments + ", "+((Road) roadSegments[i]).getID();
 		}	
 		String string2 = new String("\n"+"With these respective locations: ");
-		String locations = getAllLocations()[0].getAddress();
-		for(int i = 1; i < getAllLocations().length; i++) {
-			locations = locations + ", "+getAllLocations()[i].getAddress();
+		Location[] sequence = getLocationSequence();
+		String locations = sequence[0].getAddress();
+		for(int i = 1; i < sequence.length; i++) {
+			locations = locations + ", "+sequence[i].getAddress();
 		}
 		return string1+segments+string2+locations+"\n"+"Blocked in the direction of the route: "+!isTraversable()+"\n";
 	}
@@ -0,0 +1,890 @@
+package connections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A class of route planners that search the road network for the fastest route between two locations.
+ * The network is explored over a road graph, an indexed snapshot in which every road is only driven in a direction
+ * in which it can be traversed and weighted by its travel time in that direction. A planner keeps its road graph and
+ * search arrays between searches: the travel times are refreshed when delays, blocks, lengths or speeds change, and
+ * the network is indexed again when roads are created, terminated or swapped, or when a location outside the indexed
+ * network is asked for. A planner is therefore not meant to be used from several threads at once.
+ *
+ * @author Michiel Van der Haegen
+ * @author Sam Haberman
+ */
+public class RoutePlanner {
+
+	/**
+	 * The search strategies a route planner can use to find a fastest route.
+	 * DIJKSTRA expands locations in order of their travel time from the origin.
+	 * A_STAR additionally steers the search towards the destination using the straight-line distance to the destination
+	 * divided by the fastest road speed, a lower bound on the remaining travel time.
+	 * BIDIRECTIONAL runs Dijkstra's algorithm forward from the origin and backward from the destination over the
+	 * arriving roads of each location, until both searches meet.
+	 */
+	public enum SearchMode {
+		DIJKSTRA, A_STAR, BIDIRECTIONAL
+	}
+
+	/**
+	 * The indexed road network this planner searches, or null if it has not searched yet.
+	 */
+	private RoadGraph graph = null;
+
+	/**
+	 * The labels of searches from an origin over the leaving arcs of each location.
+	 */
+	private SearchLabels forward;
+
+	/**
+	 * The labels of searches from a destination over the arriving arcs of each location.
+	 */
+	private SearchLabels backward;
+
+	/**
+	 * Returns the fastest route from the given origin to the given destination, found with Dijkstra's algorithm.
+	 *
+	 * @param origin
+	 * 		The location the route has to start in
+	 * @param destination
+	 * 		The location the route has to end in
+	 * @return The fastest route found in the Dijkstra search mode
+	 * 	|	result == findFastestRoute(origin, destination, SearchMode.DIJKSTRA)
+	 */
+	public Route findFastestRoute(Location origin, Location destination) throws NullPointerException, IllegalArgumentException {
+		return findFastestRoute(origin, destination, SearchMode.DIJKSTRA);
+	}
+
+	/**
+	 * Returns the fastest route from the given origin to the given destination, found with the given search mode.
+	 *
+	 * @param origin
+	 * 		The location the route has to start in
+	 * @param destination
+	 * 		The location the route has to end in
+	 * @param mode
+	 * 		The search strategy used to find the route
+	 * @throws NullPointerException
+	 * 		The given origin, destination or mode is null
+	 * 	|	origin == null || destination == null || mode == null
+	 * @throws IllegalArgumentException
+	 * 		The given origin or destination is terminated
+	 * 	|	origin.isTerminated() || destination.isTerminated()
+	 * @return A route without segments if the origin and the destination are the same location.
+	 * 	|	if (origin == destination)
+	 * 	|		result.getRouteSegments().length == 0
+	 * @return Null if the destination cannot be reached from the origin.
+	 * @return Otherwise a route starting in the origin and ending in the destination of which each segment is a
+	 * 			road that is traversable in the direction of the route, such that no other such route has a smaller
+	 * 			total travel time.
+	 * 	|	result.getStartLocations()[0] == origin && result.getEndLocation() == destination
+	 */
+	public Route findFastestRoute(Location origin, Location destination, SearchMode mode) throws NullPointerException, IllegalArgumentException {
+		checkEndPoints(origin, destination);
+		if (mode == null)
+			throw new NullPointerException();
+		prepare(origin, destination);
+		int source = graph.getIndex(origin);
+		int target = graph.getIndex(destination);
+		if (mode == SearchMode.BIDIRECTIONAL)
+			return searchBidirectional(source, target);
+		if (!search(source, target, mode == SearchMode.A_STAR, null, null, null))
+			return null;
+		return graph.buildRoute(origin, tracePath(source, target));
+	}
+
+	/**
+	 * Returns up to the given number of fastest loopless routes from the given origin to the given destination, ordered
+	 * by their total travel time, found with Yen's algorithm. Each next route deviates from one of the routes found
+	 * before at some location on it: the part up to that location is kept, and the rest is found by a goal directed
+	 * search that may not use the roads by which earlier routes with the same first part left that location, nor any
+	 * location of the kept part. No route therefore visits a location twice or contains a road more than once.
+	 * The travel times from every location to the destination are computed once up front and steer every search, so
+	 * that a search only leaves the fastest way to the destination where a road or location is banned.
+	 *
+	 * @param origin
+	 * 		The location the routes have to start in
+	 * @param destination
+	 * 		The location the routes have to end in
+	 * @param count
+	 * 		The largest number of routes to return
+	 * @throws NullPointerException
+	 * 		The given origin or destination is null
+	 * 	|	origin == null || destination == null
+	 * @throws IllegalArgumentException
+	 * 		The given origin or destination is terminated, or the given count is not positive
+	 * 	|	origin.isTerminated() || destination.isTerminated() || count <= 0
+	 * @return A list of at most count distinct routes from the origin to the destination, each of which is traversable
+	 * 			and visits every location at most once, such that the first route is a fastest route, no route has a
+	 * 			smaller total travel time than the route before it, and no loopless route left out is faster than the last
+	 * 			one. The list is empty if the destination cannot be reached.
+	 * 	|	result.size() <= count &&
+	 * 	|	for each route in result:
+	 * 	|		route.getStartLocations()[0] == origin && route.getEndLocation() == destination
+	 */
+	public List<Route> findAlternativeRoutes(Location origin, Location destination, int count)
+			throws NullPointerException, IllegalArgumentException {
+		checkEndPoints(origin, destination);
+		if (count <= 0)
+			throw new IllegalArgumentException();
+		ArrayList<Route> result = new ArrayList<>();
+		prepare(origin, destination);
+		int source = graph.getIndex(origin);
+		int target = graph.getIndex(destination);
+		float[] remainingTimes = searchBackward(target, false);
+		if (!search(source, target, true, remainingTimes, null, null))
+			return result;
+		ArrayList<Path> found = new ArrayList<>();
+		found.add(new Path(toList(tracePath(source, target))));
+		PriorityQueue<Path> candidates = new PriorityQueue<>();
+		HashSet<List<Integer>> seen = new HashSet<>();
+		seen.add(found.get(0).arcs);
+		boolean[] bannedArcs = new boolean[graph.getArcCount()];
+		boolean[] bannedLocations = new boolean[graph.getLocationCount()];
+		while (found.size() < count) {
+			Path last = found.get(found.size() - 1);
+			Arrays.fill(bannedLocations, false);
+			for (int deviation = 0; deviation < last.arcs.size(); deviation++) {
+				int spur = graph.getTail(last.arcs.get(deviation));
+				List<Integer> root = last.arcs.subList(0, deviation);
+				for (Path path : found) {
+					if (path.arcs.size() > deviation && path.arcs.subList(0, deviation).equals(root))
+						bannedArcs[path.arcs.get(deviation)] = true;
+				}
+				if (search(spur, target, true, remainingTimes, bannedArcs, bannedLocations)) {
+					ArrayList<Integer> arcs = new ArrayList<>(root);
+					arcs.addAll(toList(tracePath(spur, target)));
+					if (seen.add(arcs))
+						candidates.add(new Path(arcs));
+				}
+				for (Path path : found) {
+					if (path.arcs.size() > deviation)
+						bannedArcs[path.arcs.get(deviation)] = false;
+				}
+				bannedLocations[spur] = true;
+			}
+			if (candidates.isEmpty())
+				break;
+			found.add(candidates.poll());
+		}
+		for (Path path : found) {
+			int[] arcs = new int[path.arcs.size()];
+			for (int position = 0; position < arcs.length; position++)
+				arcs[position] = path.arcs.get(position);
+			result.add(graph.buildRoute(origin, arcs));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the Pareto front of routes from the given origin to the given destination over their total length and
+	 * total travel time, found with a multi-criteria label-setting search. Each label records the length and travel
+	 * time of one way to reach a location. A label is dropped as soon as another label of the same location is at
+	 * least as short and at least as fast, or as soon as a route already found to the destination is at least as short
+	 * and at least as fast as any completion of the label can be, judged by the shortest and fastest ways from its
+	 * location to the destination. Labels are expanded in order of their travel time plus the fastest remaining travel
+	 * time, so the labels of each location are settled from fastest to shortest.
+	 *
+	 * @param origin
+	 * 		The location the routes have to start in
+	 * @param destination
+	 * 		The location the routes have to end in
+	 * @throws NullPointerException
+	 * 		The given origin or destination is null
+	 * 	|	origin == null || destination == null
+	 * @throws IllegalArgumentException
+	 * 		The given origin or destination is terminated
+	 * 	|	origin.isTerminated() || destination.isTerminated()
+	 * @return A list of traversable routes from the origin to the destination, ordered by increasing total travel time
+	 * 			and decreasing total length, such that no route from the origin to the destination is both at least as
+	 * 			short and at least as fast as one of them, unless it has the same length and travel time as one of them.
+	 * 			The list is empty if the destination cannot be reached.
+	 * 	|	for each route in result:
+	 * 	|		route.getStartLocations()[0] == origin && route.getEndLocation() == destination
+	 */
+	public List<Route> findParetoRoutes(Location origin, Location destination)
+			throws NullPointerException, IllegalArgumentException {
+		checkEndPoints(origin, destination);
+		ArrayList<Route> result = new ArrayList<>();
+		prepare(origin, destination);
+		int source = graph.getIndex(origin);
+		int target = graph.getIndex(destination);
+		float[] remainingTimes = searchBackward(target, false);
+		float[] remainingLengths = searchBackward(target, true);
+		if (remainingTimes[source] == Float.POSITIVE_INFINITY)
+			return result;
+		int[] shortestSettled = new int[graph.getLocationCount()];
+		Arrays.fill(shortestSettled, Integer.MAX_VALUE);
+		ArrayList<Label> front = new ArrayList<>();
+		PriorityQueue<Label> queue = new PriorityQueue<>();
+		queue.add(new Label(source, null, -1, 0, 0.0F, remainingTimes[source]));
+		while (!queue.isEmpty()) {
+			Label label = queue.poll();
+			if (shortestSettled[label.location] <= label.length)
+				continue;
+			if (shortestSettled[target] <= label.length + remainingLengths[label.location])
+				continue;
+			shortestSettled[label.location] = label.length;
+			if (label.location == target) {
+				front.add(label);
+				continue;
+			}
+			int last = graph.getFirstLeavingArc(label.location + 1);
+			for (int arc = graph.getFirstLeavingArc(label.location); arc < last; arc++) {
+				float arcTime = graph.getTravelTime(arc);
+				if (arcTime == Float.POSITIVE_INFINITY)
+					continue;
+				int next = graph.getHead(arc);
+				float remaining = remainingTimes[next];
+				if (remaining == Float.POSITIVE_INFINITY)
+					continue;
+				int length = label.length + graph.getLength(arc);
+				if (shortestSettled[next] <= length)
+					continue;
+				float time = label.time + arcTime;
+				queue.add(new Label(next, label, arc, length, time, time + remaining));
+			}
+		}
+		for (Label label : front) {
+			int arcCount = 0;
+			for (Label tracker = label; tracker.arc >= 0; tracker = tracker.previous)
+				arcCount++;
+			int[] arcs = new int[arcCount];
+			for (Label tracker = label; tracker.arc >= 0; tracker = tracker.previous)
+				arcs[--arcCount] = tracker.arc;
+			result.add(graph.buildRoute(origin, arcs));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the route from the given origin to the given destination that arrives earliest when leaving at the given
+	 * time, found with a time-dependent variant of Dijkstra's algorithm. Every road is weighted by its travel time at
+	 * the moment the search reaches the location it is driven from, including the delay of its delay profile at that
+	 * moment. An alternating road with a direction schedule is driven in the direction its schedule prescribes, after
+	 * waiting for it to switch if needed, so the search weighs waiting against a detour. The road graph only holds the
+	 * current direction of an alternating road, so its arcs arriving at a location are tried from there as well.
+	 * Because every road stays FIFO, waiting at a location never leads to an earlier arrival otherwise, and each
+	 * location only needs to be settled once, at its earliest time of arrival.
+	 *
+	 * @param origin
+	 * 		The location the route has to start in
+	 * @param destination
+	 * 		The location the route has to end in
+	 * @param departureTime
+	 * 		The time of departure from the origin, in seconds since the start of the first day
+	 * @throws NullPointerException
+	 * 		The given origin or destination is null
+	 * 	|	origin == null || destination == null
+	 * @throws IllegalArgumentException
+	 * 		The given origin or destination is terminated, or the given time of departure is not finite
+	 * 	|	origin.isTerminated() || destination.isTerminated() || Float.isNaN(departureTime) ||
+	 * 	|	Float.isInfinite(departureTime)
+	 * @return Null if the destination cannot be reached from the origin, otherwise the route for which no other route
+	 * 			from the origin to the destination arrives earlier when leaving at the given time.
+	 * 	|	result == null || (result.getStartLocations()[0] == origin && result.getEndLocation() == destination &&
+	 * 	|		for each route from origin to destination:
+	 * 	|			calculateArrivalTime(result, departureTime) <= calculateArrivalTime(route, departureTime))
+	 */
+	public Route findEarliestArrivalRoute(Location origin, Location destination, float departureTime)
+			throws NullPointerException, IllegalArgumentException {
+		checkEndPoints(origin, destination);
+		if (Float.isNaN(departureTime) || Float.isInfinite(departureTime))
+			throw new IllegalArgumentException();
+		prepare(origin, destination);
+		int source = graph.getIndex(origin);
+		int target = graph.getIndex(destination);
+		forward.reach(source, departureTime, -1, departureTime);
+		while (!forward.heap.isEmpty()) {
+			int index = forward.heap.pop();
+			if (index == target)
+				return graph.buildRoute(origin, tracePath(source, target));
+			Location location = graph.getLocation(index);
+			float entryTime = forward.times[index];
+			for (int arc = graph.getFirstLeavingArc(index); arc < graph.getFirstLeavingArc(index + 1); arc++) {
+				float time = graph.getRoad(arc).calculateArrivalTimeFrom(location, entryTime);
+				int next = graph.getHead(arc);
+				if (time < forward.times[next])
+					forward.reach(next, time, arc, time);
+			}
+			int last = graph.getFirstArrivingPosition(index + 1);
+			for (int position = graph.getFirstArrivingPosition(index); position < last; position++) {
+				int arc = graph.getArrivingArc(position);
+				if (!(graph.getRoad(arc) instanceof AlternatingRoad))
+					continue;
+				float time = graph.getRoad(arc).calculateArrivalTimeFrom(location, entryTime);
+				int next = graph.getTail(arc);
+				if (time < forward.times[next])
+					forward.reach(next, time, arc, time);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the time of arrival at the end of the given route when leaving its start location at the given time.
+	 *
+	 * @param route
+	 * 		The route to drive
+	 * @param departureTime
+	 * 		The time of departure from the start location of the route, in seconds
+	 * @throws NullPointerException
+	 * 		The given route is null
+	 * 	|	route == null
+	 * @return The time of departure if the route has no segments, otherwise the time of arrival at the end of its last
+	 * 			segment when each segment is driven as soon as the segment before it is finished, or infinity if one of
+	 * 			its roads cannot be driven in the direction of the route.
+	 * 	|	let tracker = route.getStartLocations()[0], result = departureTime in
+	 * 	|	for each segment in route.getRouteSegments():
+	 * 	|		result = ((Road) segment).calculateArrivalTimeFrom(tracker, result)
+	 * 	|		tracker = segment.getOtherLocation(tracker)
+	 */
+	public static float calculateArrivalTime(Route route, float departureTime) throws NullPointerException {
+		float time = departureTime;
+		Location tracker = route.getStartLocationAt(0);
+		for (Object segment : route.getRouteSegments()) {
+			if (segment instanceof Route) {
+				time = calculateArrivalTime((Route) segment, time);
+				tracker = ((Route) segment).getEndLocation();
+			} else {
+				Road road = (Road) segment;
+				time = road.calculateArrivalTimeFrom(tracker, time);
+				tracker = road.getOppositeEndPoint(tracker);
+			}
+			if (time == Float.POSITIVE_INFINITY)
+				return time;
+		}
+		return time;
+	}
+
+	/**
+	 * Repairs the given route if one of its segments cannot be driven. The first segment that cannot be driven in the
+	 * direction of the route is found, and a detour is searched from the location where that segment starts back to
+	 * one of the locations further along the route, from which the rest of the route can be driven. Of all such
+	 * detours the one that makes the remaining route fastest is chosen; the search only explores locations reached
+	 * faster than the best remaining route found so far, so it stays close to the route. The segments from the blocked
+	 * segment up to where the detour rejoins the route are removed and replaced by the roads of the detour, after
+	 * which the rest of the route is added again.
+	 *
+	 * @param route
+	 * 		The route to repair
+	 * @throws NullPointerException
+	 * 		The given route is null
+	 * 	|	route == null
+	 * @return True if every segment of the route can be driven after the repair, false if no detour could be found, in
+	 * 			which case the route is left unchanged.
+	 * @post If a detour was found, the route starts and ends in the same locations, every segment of it can be driven
+	 * 		in the direction of the route, and its segments before the first blocked segment are unchanged.
+	 * 	|	if (result)
+	 * 	|		new.getStartLocations()[0] == route.getStartLocations()[0] &&
+	 * 	|		new.getEndLocation() == route.getEndLocation()
+	 */
+	public boolean repairRoute(Route route) throws NullPointerException {
+		Object[] segments = route.getRouteSegments();
+		Location[] boundaries = new Location[segments.length + 1];
+		boundaries[0] = route.getStartLocationAt(0);
+		int blocked = -1;
+		for (int index = 0; index < segments.length; index++) {
+			boundaries[index + 1] = ((Segments) segments[index]).getOtherLocation(boundaries[index]);
+			if (blocked < 0 && getTravelTime(segments[index], boundaries[index]) == Float.POSITIVE_INFINITY)
+				blocked = index;
+		}
+		if (blocked < 0)
+			return true;
+		float[] remainingTimes = new float[segments.length + 1];
+		for (int index = segments.length - 1; index >= 0; index--)
+			remainingTimes[index] = remainingTimes[index + 1] + getTravelTime(segments[index], boundaries[index]);
+		Location origin = boundaries[blocked];
+		prepare(origin, origin);
+		if (!graph.hasAsLocation(origin))
+			return false;
+		int[] rejoinAt = new int[graph.getLocationCount()];
+		Arrays.fill(rejoinAt, -1);
+		for (int index = segments.length; index > blocked; index--) {
+			if (remainingTimes[index] == Float.POSITIVE_INFINITY)
+				break;
+			if (!graph.hasAsLocation(boundaries[index]))
+				continue;
+			int location = graph.getIndex(boundaries[index]);
+			if (rejoinAt[location] < 0 || remainingTimes[index] < remainingTimes[rejoinAt[location]])
+				rejoinAt[location] = index;
+		}
+		int source = graph.getIndex(origin);
+		forward.reach(source, 0.0F, -1, 0.0F);
+		float best = Float.POSITIVE_INFINITY;
+		int rejoin = -1;
+		while (!forward.heap.isEmpty() && forward.heap.peekKey() < best) {
+			float entryTime = forward.heap.peekKey();
+			int location = forward.heap.pop();
+			int index = rejoinAt[location];
+			if (index >= 0 && entryTime + remainingTimes[index] < best) {
+				best = entryTime + remainingTimes[index];
+				rejoin = location;
+			}
+			for (int arc = graph.getFirstLeavingArc(location); arc < graph.getFirstLeavingArc(location + 1); arc++) {
+				float arcTime = graph.getTravelTime(arc);
+				if (arcTime == Float.POSITIVE_INFINITY)
+					continue;
+				int next = graph.getHead(arc);
+				float time = entryTime + arcTime;
+				if (time < forward.times[next])
+					forward.reach(next, time, arc, time);
+			}
+		}
+		if (rejoin < 0)
+			return false;
+		int[] detour = tracePath(source, rejoin);
+		for (int index = segments.length - 1; index >= blocked; index--)
+			route.removeRouteSegment(index);
+		for (int arc : detour)
+			route.addRouteSegment(graph.getRoad(arc));
+		for (int index = rejoinAt[rejoin]; index < segments.length; index++)
+			route.addRouteSegment(segments[index]);
+		return true;
+	}
+
+	/**
+	 * Returns the travel time of the given segment of a route when driving it from the given location.
+	 *
+	 * @param segment The road or route to drive
+	 * @param location The location to enter the segment from
+	 * @return The travel time of the road away from the given location if the segment is a road, the sum of the travel
+	 * 			times of the segments of the route if the segment is a route starting in the given location, and infinity
+	 * 			if one of the roads cannot be driven in that direction.
+	 */
+	private static float getTravelTime(Object segment, Location location) {
+		if (segment instanceof Road)
+			return ((Road) segment).calculateTravelTimeFrom(location);
+		Route route = (Route) segment;
+		if (route.getStartLocationAt(0) != location)
+			return Float.POSITIVE_INFINITY;
+		float time = 0.0F;
+		for (Object part : route.getRouteSegments()) {
+			time += getTravelTime(part, location);
+			if (time == Float.POSITIVE_INFINITY)
+				return time;
+			location = ((Segments) part).getOtherLocation(location);
+		}
+		return time;
+	}
+
+	/**
+	 * Checks whether the given locations can be used as the end points of a search.
+	 *
+	 * @param origin The location a search starts in
+	 * @param destination The location a search ends in
+	 * @throws NullPointerException
+	 * 		The given origin or destination is null
+	 * 	|	origin == null || destination == null
+	 * @throws IllegalArgumentException
+	 * 		The given origin or destination is terminated
+	 * 	|	origin.isTerminated() || destination.isTerminated()
+	 */
+	void checkEndPoints(Location origin, Location destination) throws NullPointerException, IllegalArgumentException {
+		if (origin == null || destination == null)
+			throw new NullPointerException();
+		if (origin.isTerminated() || destination.isTerminated())
+			throw new IllegalArgumentException();
+	}
+
+	/**
+	 * Makes the road graph of this planner cover the given locations with current travel times, and clears the labels
+	 * of the last search. The graph is indexed again if roads were created, terminated or swapped since it was built,
+	 * or if one of the given locations lies outside it.
+	 *
+	 * @param origin The location a search starts in
+	 * @param destination The location a search ends in
+	 */
+	private void prepare(Location origin, Location destination) {
+		if (graph == null || graph.isOutdated() || !graph.hasAsLocation(origin) || !graph.hasAsLocation(destination)) {
+			graph = new RoadGraph(Arrays.asList(origin, destination));
+			forward = new SearchLabels(graph.getLocationCount());
+			backward = new SearchLabels(graph.getLocationCount());
+		} else {
+			graph = graph.withCurrentTravelTimes();
+			forward.clear();
+			backward.clear();
+		}
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm from the given origin until the given destination is settled, registering for each
+	 * reached location the arc over which it was reached fastest in the forward labels. If goal directed, locations are
+	 * expanded in order of their travel time plus the estimated remaining travel time to the destination instead (A*).
+	 * The estimate is a lower bound that drops by at most the travel time of each road, but float rounding of travel
+	 * times can still make it slightly inconsistent, so a location whose travel time improves after it was expanded is
+	 * expanded again. If the exact remaining travel times are given, they are used as estimate, and locations without
+	 * one are not reached at all.
+	 *
+	 * @param origin The index of the location the search starts in
+	 * @param destination The index of the location the search stops at
+	 * @param goalDirected Whether the search is steered towards the destination
+	 * @param remainingTimes The travel time from each location to the destination, or null if it is not known
+	 * @param bannedArcs Whether the search may not drive along each arc, or null if no arc is banned
+	 * @param bannedLocations Whether the search may not reach each location, or null if no location is banned
+	 * @return True if the destination was reached.
+	 */
+	private boolean search(int origin, int destination, boolean goalDirected, float[] remainingTimes,
+			boolean[] bannedArcs, boolean[] bannedLocations) {
+		forward.clear();
+		float fastestSpeed = Road.getFastestStraightLineSpeed();
+		Location target = graph.getLocation(destination);
+		forward.reach(origin, 0.0F, -1, 0.0F);
+		while (!forward.heap.isEmpty()) {
+			int index = forward.heap.pop();
+			if (index == destination)
+				return true;
+			float entryTime = forward.times[index];
+			for (int arc = graph.getFirstLeavingArc(index); arc < graph.getFirstLeavingArc(index + 1); arc++) {
+				if (bannedArcs != null && bannedArcs[arc])
+					continue;
+				float arcTime = graph.getTravelTime(arc);
+				if (arcTime == Float.POSITIVE_INFINITY)
+					continue;
+				int next = graph.getHead(arc);
+				if (bannedLocations != null && bannedLocations[next])
+					continue;
+				float time = entryTime + arcTime;
+				if (time < forward.times[next]) {
+					float estimate = 0.0F;
+					if (remainingTimes != null) {
+						estimate = remainingTimes[next];
+						if (estimate == Float.POSITIVE_INFINITY)
+							continue;
+					} else if (goalDirected) {
+						estimate = estimateTravelTime(graph.getLocation(next), target, fastestSpeed);
+					}
+					forward.reach(next, time, arc, time + estimate);
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm backward from the given destination over the arriving arcs of each location, until
+	 * every location from which the destination can be reached is settled. Arcs are weighted by their travel time or,
+	 * if so asked, by their length.
+	 *
+	 * @param destination The index of the location the search starts in
+	 * @param byLength Whether arcs are weighted by their length instead of their travel time
+	 * @return The travel time of the fastest route, or the length of the shortest route, from each location to the
+	 * 			destination, infinite for every location from which the destination cannot be reached.
+	 */
+	private float[] searchBackward(int destination, boolean byLength) {
+		backward.clear();
+		backward.reach(destination, 0.0F, -1, 0.0F);
+		while (!backward.heap.isEmpty()) {
+			int index = backward.heap.pop();
+			float entryTime = backward.times[index];
+			int last = graph.getFirstArrivingPosition(index + 1);
+			for (int position = graph.getFirstArrivingPosition(index); position < last; position++) {
+				int arc = graph.getArrivingArc(position);
+				float arcTime = graph.getTravelTime(arc);
+				if (arcTime == Float.POSITIVE_INFINITY)
+					continue;
+				int previous = graph.getTail(arc);
+				float time = entryTime + (byLength ? graph.getLength(arc) : arcTime);
+				if (time < backward.times[previous])
+					backward.reach(previous, time, arc, time);
+			}
+		}
+		float[] result = backward.times.clone();
+		backward.clear();
+		return result;
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm forward from the given origin over the leaving arcs of each location and backward from
+	 * the given destination over the arriving arcs of each location, always expanding the side with the smallest travel
+	 * time. The searches stop as soon as the sum of the smallest travel times left on both sides cannot improve on the
+	 * fastest connection found where both searches met.
+	 *
+	 * @param origin The index of the location the route has to start in
+	 * @param destination The index of the location the route has to end in
+	 * @return The fastest route from the origin to the destination, or null if the destination cannot be reached.
+	 */
+	private Route searchBidirectional(int origin, int destination) {
+		forward.reach(origin, 0.0F, -1, 0.0F);
+		backward.reach(destination, 0.0F, -1, 0.0F);
+		float best = Float.POSITIVE_INFINITY;
+		int meeting = -1;
+		if (origin == destination) {
+			best = 0.0F;
+			meeting = origin;
+		}
+		while (!forward.heap.isEmpty() && !backward.heap.isEmpty()) {
+			if (forward.heap.peekKey() + backward.heap.peekKey() >= best)
+				break;
+			boolean isForward = forward.heap.peekKey() <= backward.heap.peekKey();
+			SearchLabels labels = isForward ? forward : backward;
+			SearchLabels otherLabels = isForward ? backward : forward;
+			int index = labels.heap.pop();
+			float entryTime = labels.times[index];
+			int first = isForward ? graph.getFirstLeavingArc(index) : graph.getFirstArrivingPosition(index);
+			int last = isForward ? graph.getFirstLeavingArc(index + 1) : graph.getFirstArrivingPosition(index + 1);
+			for (int position = first; position < last; position++) {
+				int arc = isForward ? position : graph.getArrivingArc(position);
+				float arcTime = graph.getTravelTime(arc);
+				if (arcTime == Float.POSITIVE_INFINITY)
+					continue;
+				int next = isForward ? graph.getHead(arc) : graph.getTail(arc);
+				float time = entryTime + arcTime;
+				if (time < labels.times[next]) {
+					labels.reach(next, time, arc, time);
+					if (time + otherLabels.times[next] < best) {
+						best = time + otherLabels.times[next];
+						meeting = next;
+					}
+				}
+			}
+		}
+		if (meeting < 0)
+			return null;
+		int[] arcs = tracePath(origin, meeting);
+		int backwardCount = 0;
+		for (int tracker = meeting; tracker != destination; tracker = graph.getHead(backward.reachedBy[tracker]))
+			backwardCount++;
+		arcs = Arrays.copyOf(arcs, arcs.length + backwardCount);
+		int position = arcs.length - backwardCount;
+		for (int tracker = meeting; tracker != destination; tracker = graph.getHead(backward.reachedBy[tracker]))
+			arcs[position++] = backward.reachedBy[tracker];
+		return graph.buildRoute(graph.getLocation(origin), arcs);
+	}
+
+	/**
+	 * Returns a lower bound on the travel time between the given locations.
+	 *
+	 * @param location The location to travel from
+	 * @param destination The location to travel to
+	 * @param fastestSpeed An upper bound on the straight-line speed of every road
+	 * @return The straight-line distance between both locations divided by the given speed, or zero if no speed is
+	 * 			known yet. Every road covers at most its straight-line speed times its travel time in straight-line
+	 * 			distance, so by the triangle inequality no path between the locations is faster than this.
+	 * 	|	result == sqrt((x2-x1)^2+(y2-y1)^2) / fastestSpeed
+	 */
+	static float estimateTravelTime(Location location, Location destination, float fastestSpeed) {
+		if (fastestSpeed <= 0.0F)
+			return 0.0F;
+		double xdif = destination.getLongitude() - location.getLongitude();
+		double ydif = destination.getLatitude() - location.getLatitude();
+		return (float) (Math.sqrt((xdif * xdif) + (ydif * ydif)) / fastestSpeed);
+	}
+
+	/**
+	 * Returns the arcs from the given origin to the given destination by following the arcs registered in the forward
+	 * labels backwards. An arc may have been driven from its head to its tail, so each step continues from the end of
+	 * the arc opposite to the location it reached.
+	 *
+	 * @param origin The index of the location the arcs start in
+	 * @param destination The index of the location the arcs end in
+	 * @return The registered arcs leading from the origin to the destination, in the order they are driven.
+	 */
+	private int[] tracePath(int origin, int destination) {
+		int arcCount = 0;
+		for (int tracker = destination; tracker != origin; tracker = previousOf(tracker))
+			arcCount++;
+		int[] arcs = new int[arcCount];
+		for (int tracker = destination; tracker != origin; tracker = previousOf(tracker))
+			arcs[--arcCount] = forward.reachedBy[tracker];
+		return arcs;
+	}
+
+	/**
+	 * Returns the index of the location from which the forward labels reached the location at the given index.
+	 *
+	 * @param index The index of a location reached by the last forward search
+	 */
+	private int previousOf(int index) {
+		int arc = forward.reachedBy[index];
+		return (graph.getHead(arc) == index) ? graph.getTail(arc) : graph.getHead(arc);
+	}
+
+	/**
+	 * Returns the given arcs as a list.
+	 *
+	 * @param arcs The arcs to list
+	 */
+	private static List<Integer> toList(int[] arcs) {
+		ArrayList<Integer> result = new ArrayList<>(arcs.length);
+		for (int arc : arcs)
+			result.add(arc);
+		return result;
+	}
+
+	/**
+	 * A class of labels of the multi-criteria search, each recording one way to reach a location. Labels are ordered by
+	 * their key, and labels with the same key by their length.
+	 */
+	private static class Label implements Comparable<Label> {
+
+		/**
+		 * The index of the location that was reached.
+		 */
+		private final int location;
+
+		/**
+		 * The label of the location from which the location was reached, or null at the origin.
+		 */
+		private final Label previous;
+
+		/**
+		 * The arc over which the location was reached, or -1 at the origin.
+		 */
+		private final int arc;
+
+		/**
+		 * The total length of the way to the location.
+		 */
+		private final int length;
+
+		/**
+		 * The total travel time of the way to the location.
+		 */
+		private final float time;
+
+		/**
+		 * The key by which this label is ordered.
+		 */
+		private final float key;
+
+		/**
+		 * Initialize a new label with given location, previous label, arc, length, travel time and key.
+		 *
+		 * @param location The index of the location that was reached
+		 * @param previous The label of the location from which the location was reached
+		 * @param arc The arc over which the location was reached
+		 * @param length The total length of the way to the location
+		 * @param time The total travel time of the way to the location
+		 * @param key The key by which the label is ordered
+		 */
+		private Label(int location, Label previous, int arc, int length, float time, float key) {
+			this.location = location;
+			this.previous = previous;
+			this.arc = arc;
+			this.length = length;
+			this.time = time;
+			this.key = key;
+		}
+
+		@Override
+		public int compareTo(Label other) {
+			int result = Float.compare(this.key, other.key);
+			if (result == 0)
+				result = Integer.compare(this.length, other.length);
+			return result;
+		}
+	}
+
+	/**
+	 * A class of paths found by the search for alternative routes, ordered by their total travel time.
+	 */
+	private class Path implements Comparable<Path> {
+
+		/**
+		 * The arcs of this path, in the order they are driven.
+		 */
+		private final List<Integer> arcs;
+
+		/**
+		 * The total travel time of this path.
+		 */
+		private final float time;
+
+		/**
+		 * Initialize a new path along the given arcs of the road graph of this planner.
+		 *
+		 * @param arcs The arcs of the path, in the order they are driven
+		 */
+		private Path(List<Integer> arcs) {
+			this.arcs = arcs;
+			float total = 0.0F;
+			for (int arc : arcs)
+				total += graph.getTravelTime(arc);
+			this.time = total;
+		}
+
+		@Override
+		public int compareTo(Path other) {
+			return Float.compare(this.time, other.time);
+		}
+	}
+
+	/**
+	 * A class of search labels over the locations of a road graph, holding the travel time at which each location was
+	 * reached, the arc over which it was reached and the heap of locations that still have to be settled. The arrays
+	 * are allocated once for each road graph, and only the locations reached by the last search are reset.
+	 */
+	private static class SearchLabels {
+
+		/**
+		 * The heap of locations that still have to be settled, ordered by their key.
+		 */
+		private final LocationHeap heap;
+
+		/**
+		 * The travel time at which each location was reached, infinite if it was not reached.
+		 */
+		private final float[] times;
+
+		/**
+		 * The arc over which each location was reached.
+		 */
+		private final int[] reachedBy;
+
+		/**
+		 * The indices of the locations reached since the last reset.
+		 */
+		private final int[] touched;
+
+		/**
+		 * The number of locations reached since the last reset.
+		 */
+		private int touchedCount = 0;
+
+		/**
+		 * Initialize new search labels for the given number of locations.
+		 *
+		 * @param count The number of locations of the road graph
+		 */
+		private SearchLabels(int count) {
+			this.heap = new LocationHeap(count);
+			this.times = new float[count];
+			this.reachedBy = new int[count];
+			this.touched = new int[count];
+			Arrays.fill(times, Float.POSITIVE_INFINITY);
+		}
+
+		/**
+		 * Registers that the location at the given index was reached at the given travel time over the given arc, and
+		 * adds it to the heap with the given key.
+		 *
+		 * @param index The index of the location
+		 * @param time The travel time at which the location was reached
+		 * @param arc The arc over which the location was reached, or -1 at the start of the search
+		 * @param key The key by which the location is settled
+		 */
+		private void reach(int index, float time, int arc, float key) {
+			if (times[index] == Float.POSITIVE_INFINITY)
+				touched[touchedCount++] = index;
+			times[index] = time;
+			reachedBy[index] = arc;
+			heap.push(index, key);
+		}
+
+		/**
+		 * Resets the labels of the locations reached since the last reset and empties the heap.
+		 */
+		private void clear() {
+			for (int position = 0; position < touchedCount; position++)
+				times[touched[position]] = Float.POSITIVE_INFINITY;
+			touchedCount = 0;
+			heap.clear();
+		}
+	}
+}
@@ -19,6 +19,62 @@ public abstract class Segments {
 	 */
 	public abstract Location[] getEndLocations();
 
+	/**
+	 * Returns the number of valid start locations for this segment, without building an array.
+	 * Unless overridden, a segment has its start location as only start location.
+	 */
+	public int getStartLocationCount() {
+		return 1;
+	}
+
+	/**
+	 * Returns the valid start location at the given position for this segment, without building an array.
+	 * Unless overridden, a segment has its start location as only start location.
+	 * @param position The position of the start location
+	 * @throws IndexOutOfBoundsException The given position is not below the number of start locations
+	 * 		| position < 0 || position >= getStartLocationCount()
+	 */
+	public Location getStartLocationAt(int position) throws IndexOutOfBoundsException {
+		if (position != 0)
+			throw new IndexOutOfBoundsException();
+		return startLocation;
+	}
+
+	/**
+	 * Returns the number of valid end locations for this segment, without building an array.
+	 * Unless overridden, a segment has its end location as only end location.
+	 */
+	public int getEndLocationCount() {
+		return 1;
+	}
+
+	/**
+	 * Returns the valid end location at the given position for this segment, without building an array.
+	 * Unless overridden, a segment has its end location as only end location.
+	 * @param position The position of the end location
+	 * @throws IndexOutOfBoundsException The given position is not below the number of end locations
+	 * 		| position < 0 || position >= getEndLocationCount()
+	 */
+	public Location getEndLocationAt(int position) throws IndexOutOfBoundsException {
+		if (position != 0)
+			throw new IndexOutOfBoundsException();
+		return endLocation;
+	}
+
+	/**
+	 * Checks whether the given location is one of the valid start locations for this segment.
+	 * @param location The location to check
+	 * @return True if one of the start locations of this segment is the given location
+	 * 		| result == Arrays.asList(getStartLocations()).contains(location)
+	 */
+	public boolean hasAsStartLocation(Location location) {
+		for (int position = 0; position < getStartLocationCount(); position++) {
+			if (getStartLocationAt(position) == location)
+				return true;
+		}
+		return false;
+	}
+
 	/**
 	 * Returns the length of the segment
 	 */
@@ -0,0 +1,238 @@
+package connections;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+
+/**
+ * A class of tour planners that find a good order in which to visit a number of waypoints from a start location, and
+ * build the tour as a route of which each segment is the fastest route of one leg. The order is found on a travel time
+ * matrix between all stops: a nearest neighbour tour is improved by 2-opt moves, which reverse a stretch of the tour,
+ * and Or-opt moves, which move a stretch of up to three stops elsewhere, until no such move makes the tour faster.
+ * Travel times need not be symmetric; a reversed stretch is weighed in its new direction.
+ *
+ * @author Michiel Van der Haegen
+ * @author Sam Haberman
+ */
+public class TourPlanner {
+
+	/**
+	 * The travel time used instead of infinity for stops that cannot be reached from each other, large enough to
+	 * outweigh any tour over reachable stops.
+	 */
+	private static final double UNREACHABLE = 1e12;
+
+	/**
+	 * The longest stretch of stops moved at once by an Or-opt move.
+	 */
+	private static final int MAX_MOVED_STOPS = 3;
+
+	/**
+	 * The route planner used to find the route of each leg. Like the travel time matrix, it searches with Dijkstra's
+	 * algorithm, so each leg is the route whose travel time the order was chosen on.
+	 */
+	private final RoutePlanner planner = new RoutePlanner();
+
+	/**
+	 * Returns a tour from the given start location through each of the given waypoints, as a route of which each
+	 * segment is the fastest route from one stop to the next.
+	 *
+	 * @param start
+	 * 		The location the tour starts in
+	 * @param waypoints
+	 * 		The locations the tour has to visit, in any order
+	 * @param returnToStart
+	 * 		Whether the tour has to end where it started
+	 * @throws NullPointerException
+	 * 		The given start location or collection is null, or the collection contains null
+	 * 	|	start == null || waypoints == null || waypoints.contains(null)
+	 * @throws IllegalArgumentException
+	 * 		The given start location or one of the waypoints is terminated
+	 * @return Null if the order of the stops found has a leg of which the next stop cannot be reached from the stop
+	 * 			before it. Orders that leave a leg unreachable are avoided, but only through the 2-opt and Or-opt moves
+	 * 			on the order found, so another order of the waypoints may still avoid every unreachable leg.
+	 * 			Otherwise a route starting in the given start location with a sub-route for each leg, visiting each
+	 * 			waypoint other than the start location exactly once and, if asked, returning to the start location,
+	 * 			such that no 2-opt or Or-opt move on the order of the waypoints gives a smaller total travel time.
+	 * 	|	result == null || (result.getStartLocations()[0] == start &&
+	 * 	|		for each segment in result.getRouteSegments(): segment instanceof Route)
+	 */
+	public Route planTour(Location start, Collection<Location> waypoints, boolean returnToStart)
+			throws NullPointerException, IllegalArgumentException {
+		if (start == null)
+			throw new NullPointerException();
+		LinkedHashSet<Location> distinct = new LinkedHashSet<>();
+		distinct.add(start);
+		for (Location waypoint : waypoints) {
+			if (waypoint == null)
+				throw new NullPointerException();
+			distinct.add(waypoint);
+		}
+		Location[] stops = distinct.toArray(new Location[0]);
+		float[][] matrix = new TravelTimeMatrix(stops, stops, true).getTravelTimes();
+		double[][] times = new double[stops.length][stops.length];
+		for (int from = 0; from < stops.length; from++) {
+			for (int to = 0; to < stops.length; to++)
+				times[from][to] = (matrix[from][to] == Float.POSITIVE_INFINITY) ? UNREACHABLE : matrix[from][to];
+		}
+		int[] tour = seedTour(times);
+		while (improveByTwoOpt(tour, times, returnToStart) || improveByOrOpt(tour, times, returnToStart))
+			;
+		if (getTravelTime(tour, times, returnToStart) >= UNREACHABLE)
+			return null;
+		ArrayList<Route> legs = new ArrayList<>();
+		for (int position = 1; position < tour.length; position++)
+			legs.add(planner.findFastestRoute(stops[tour[position - 1]], stops[tour[position]], RoutePlanner.SearchMode.DIJKSTRA));
+		if (returnToStart && tour.length > 1)
+			legs.add(planner.findFastestRoute(stops[tour[tour.length - 1]], start, RoutePlanner.SearchMode.DIJKSTRA));
+		return new Route(start, legs.toArray());
+	}
+
+	/**
+	 * Returns a tour starting at the first stop that always continues to the nearest stop not visited yet.
+	 *
+	 * @param times The travel time from each stop to each stop
+	 * @return An order of all stops, starting with the first stop.
+	 */
+	private static int[] seedTour(double[][] times) {
+		int[] tour = new int[times.length];
+		boolean[] visited = new boolean[times.length];
+		visited[0] = true;
+		for (int position = 1; position < tour.length; position++) {
+			int current = tour[position - 1];
+			int nearest = -1;
+			for (int stop = 1; stop < times.length; stop++) {
+				if (!visited[stop] && (nearest < 0 || times[current][stop] < times[current][nearest]))
+					nearest = stop;
+			}
+			tour[position] = nearest;
+			visited[nearest] = true;
+		}
+		return tour;
+	}
+
+	/**
+	 * Returns the total travel time of the given tour.
+	 *
+	 * @param tour The order of the stops
+	 * @param times The travel time from each stop to each stop
+	 * @param closed Whether the tour returns to its first stop
+	 */
+	private static double getTravelTime(int[] tour, double[][] times, boolean closed) {
+		double total = 0.0;
+		for (int position = 1; position < tour.length; position++)
+			total += times[tour[position - 1]][tour[position]];
+		if (closed)
+			total += times[tour[tour.length - 1]][tour[0]];
+		return total;
+	}
+
+	/**
+	 * Returns the travel time from the stop at the given position to the stop following it, or zero if no stop follows.
+	 *
+	 * @param tour The order of the stops
+	 * @param times The travel time from each stop to each stop
+	 * @param closed Whether the tour returns to its first stop
+	 * @param position The position of the stop
+	 */
+	private static double getLegTime(int[] tour, double[][] times, boolean closed, int position) {
+		if (position + 1 < tour.length)
+			return times[tour[position]][tour[position + 1]];
+		return closed ? times[tour[position]][tour[0]] : 0.0;
+	}
+
+	/**
+	 * Applies the first 2-opt move that makes the given tour faster, if any. A 2-opt move reverses the order of the
+	 * stops between two positions. The travel times of the stretch in both directions are kept as prefix sums, so
+	 * each move is weighed in constant time.
+	 *
+	 * @param tour The order of the stops, of which the first stop stays in place
+	 * @param times The travel time from each stop to each stop
+	 * @param closed Whether the tour returns to its first stop
+	 * @return True if a move was applied.
+	 */
+	private static boolean improveByTwoOpt(int[] tour, double[][] times, boolean closed) {
+		int count = tour.length;
+		double[] forward = new double[count];
+		double[] backward = new double[count];
+		for (int position = 1; position < count; position++) {
+			forward[position] = forward[position - 1] + times[tour[position - 1]][tour[position]];
+			backward[position] = backward[position - 1] + times[tour[position]][tour[position - 1]];
+		}
+		for (int first = 1; first < count - 1; first++) {
+			int before = tour[first - 1];
+			for (int last = first + 1; last < count; last++) {
+				boolean hasAfter = last + 1 < count || closed;
+				int after = (last + 1 < count) ? tour[last + 1] : tour[0];
+				double oldTime = times[before][tour[first]] + (forward[last] - forward[first])
+						+ (hasAfter ? times[tour[last]][after] : 0.0);
+				double newTime = times[before][tour[last]] + (backward[last] - backward[first])
+						+ (hasAfter ? times[tour[first]][after] : 0.0);
+				if (newTime < oldTime - 1e-6 * Math.max(1.0, oldTime)) {
+					for (int low = first, high = last; low < high; low++, high--) {
+						int stop = tour[low];
+						tour[low] = tour[high];
+						tour[high] = stop;
+					}
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Applies the first Or-opt move that makes the given tour faster, if any. An Or-opt move takes a stretch of up to
+	 * three consecutive stops out of the tour and puts it back, in the same order, between two other consecutive stops.
+	 *
+	 * @param tour The order of the stops, of which the first stop stays in place
+	 * @param times The travel time from each stop to each stop
+	 * @param closed Whether the tour returns to its first stop
+	 * @return True if a move was applied.
+	 */
+	private static boolean improveByOrOpt(int[] tour, double[][] times, boolean closed) {
+		int count = tour.length;
+		for (int length = 1; length <= MAX_MOVED_STOPS; length++) {
+			for (int first = 1; first + length - 1 < count; first++) {
+				int last = first + length - 1;
+				boolean hasAfter = last + 1 < count || closed;
+				int after = (last + 1 < count) ? tour[last + 1] : tour[0];
+				double removed = times[tour[first - 1]][tour[first]] + getLegTime(tour, times, closed, last)
+						- (hasAfter ? times[tour[first - 1]][after] : 0.0);
+				for (int target = 0; target < count; target++) {
+					if (target >= first - 1 && target <= last)
+						continue;
+					double inserted = times[tour[target]][tour[first]] - getLegTime(tour, times, closed, target);
+					if (target + 1 < count || closed)
+						inserted += times[tour[last]][(target + 1 < count) ? tour[target + 1] : tour[0]];
+					if (inserted < removed - 1e-6 * Math.max(1.0, removed)) {
+						moveStretch(tour, first, last, target);
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Moves the stops between the given positions to just after the stop at the given target position.
+	 *
+	 * @param tour The order of the stops
+	 * @param first The position of the first stop to move
+	 * @param last The position of the last stop to move
+	 * @param target The position of the stop after which the stops are put, outside the moved stretch
+	 */
+	private static void moveStretch(int[] tour, int first, int last, int target) {
+		int length = last - first + 1;
+		int[] stretch = new int[length];
+		System.arraycopy(tour, first, stretch, 0, length);
+		if (target > last) {
+			System.arraycopy(tour, last + 1, tour, first, target - last);
+			System.arraycopy(stretch, 0, tour, target - length + 1, length);
+		} else {
+			System.arraycopy(tour, target + 1, tour, target + 1 + length, first - target - 1);
+			System.arraycopy(stretch, 0, tour, target + 1, length);
+		}
+	}
+}
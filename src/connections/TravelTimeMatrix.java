@@ -0,0 +1,274 @@
+package connections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A class of travel time matrices, holding the travel time and length of the fastest route from each of a number of
+ * source locations to each of a number of target locations. Each row is computed with a single Dijkstra sweep from
+ * its source that stops as soon as all targets are settled, instead of one search per pair of locations. Rows are
+ * independent of each other and can be computed in parallel.
+ *
+ * @invar The matrix has a row for each source and a column for each target
+ * 		| getTravelTimes().length == getSources().length &&
+ * 		| for each row in getTravelTimes(): row.length == getTargets().length
+ *
+ * @author Michiel Van der Haegen
+ * @author Sam Haberman
+ */
+public class TravelTimeMatrix {
+
+	/**
+	 * The source locations, one for each row.
+	 */
+	private final Location[] sources;
+
+	/**
+	 * The target locations, one for each column.
+	 */
+	private final Location[] targets;
+
+	/**
+	 * The travel time of the fastest route from each source to each target, infinite if there is none.
+	 */
+	private final float[][] travelTimes;
+
+	/**
+	 * The length of the fastest route from each source to each target, -1 if there is none.
+	 */
+	private final int[][] lengths;
+
+	/**
+	 * Initialize a new travel time matrix from the given sources to the given targets with the current travel times of
+	 * the roads.
+	 *
+	 * @param sources
+	 * 		The locations the routes start in, one for each row
+	 * @param targets
+	 * 		The locations the routes end in, one for each column
+	 * @param parallel
+	 * 		Whether the rows are computed in parallel
+	 * @throws NullPointerException
+	 * 		One of the given arrays is null or contains null
+	 * @throws IllegalArgumentException
+	 * 		One of the given locations is terminated
+	 * @post The travel time from each source to each target is the total travel time of the fastest route between them,
+	 * 		or infinity if there is no such route, and its length is the total length of that route, or -1.
+	 * 	|	for each row, column:
+	 * 	|		new.getTravelTime(row, column) == total travel time of new RoutePlanner().findFastestRoute(sources[row], targets[column])
+	 */
+	public TravelTimeMatrix(Location[] sources, Location[] targets, boolean parallel)
+			throws NullPointerException, IllegalArgumentException {
+		this.sources = sources.clone();
+		this.targets = targets.clone();
+		ArrayList<Location> locations = new ArrayList<>();
+		for (Location location : this.sources)
+			checkLocation(location, locations);
+		for (Location location : this.targets)
+			checkLocation(location, locations);
+		RoadGraph graph = new RoadGraph(locations);
+		int[][] columnsAt = new int[graph.getLocationCount()][];
+		int[] columnCounts = new int[graph.getLocationCount()];
+		for (Location target : this.targets)
+			columnCounts[graph.getIndex(target)]++;
+		for (int index = 0; index < columnsAt.length; index++)
+			columnsAt[index] = new int[columnCounts[index]];
+		for (int column = 0; column < this.targets.length; column++) {
+			int index = graph.getIndex(this.targets[column]);
+			columnsAt[index][--columnCounts[index]] = column;
+		}
+		this.travelTimes = new float[this.sources.length][];
+		this.lengths = new int[this.sources.length][];
+		ThreadLocal<Sweep> sweeps = ThreadLocal.withInitial(() -> new Sweep(graph, columnsAt));
+		IntStream rows = IntStream.range(0, this.sources.length);
+		if (parallel)
+			rows = rows.parallel();
+		rows.forEach(row -> {
+			travelTimes[row] = new float[this.targets.length];
+			lengths[row] = new int[this.targets.length];
+			sweeps.get().run(graph.getIndex(this.sources[row]), this.targets.length, travelTimes[row], lengths[row]);
+		});
+	}
+
+	/**
+	 * Checks whether the given location can be part of a matrix and adds it to the given list.
+	 *
+	 * @param location The location to check
+	 * @param locations The list to add the location to
+	 * @throws NullPointerException
+	 * 		The given location is null
+	 * @throws IllegalArgumentException
+	 * 		The given location is terminated
+	 */
+	private static void checkLocation(Location location, ArrayList<Location> locations)
+			throws NullPointerException, IllegalArgumentException {
+		if (location == null)
+			throw new NullPointerException();
+		if (location.isTerminated())
+			throw new IllegalArgumentException();
+		locations.add(location);
+	}
+
+	/**
+	 * Returns the source locations of this matrix, one for each row.
+	 */
+	public Location[] getSources() {
+		return sources.clone();
+	}
+
+	/**
+	 * Returns the target locations of this matrix, one for each column.
+	 */
+	public Location[] getTargets() {
+		return targets.clone();
+	}
+
+	/**
+	 * Returns the travel time of the fastest route from the source of the given row to the target of the given column,
+	 * or infinity if there is no such route.
+	 *
+	 * @param row The row of the source
+	 * @param column The column of the target
+	 * @throws IndexOutOfBoundsException
+	 * 		The given row or column does not exist
+	 */
+	public float getTravelTime(int row, int column) throws IndexOutOfBoundsException {
+		return travelTimes[row][column];
+	}
+
+	/**
+	 * Returns the length of the fastest route from the source of the given row to the target of the given column,
+	 * or -1 if there is no such route.
+	 *
+	 * @param row The row of the source
+	 * @param column The column of the target
+	 * @throws IndexOutOfBoundsException
+	 * 		The given row or column does not exist
+	 */
+	public int getLength(int row, int column) throws IndexOutOfBoundsException {
+		return lengths[row][column];
+	}
+
+	/**
+	 * Returns all travel times of this matrix, with a row for each source and a column for each target.
+	 */
+	public float[][] getTravelTimes() {
+		float[][] result = new float[travelTimes.length][];
+		for (int row = 0; row < travelTimes.length; row++)
+			result[row] = travelTimes[row].clone();
+		return result;
+	}
+
+	/**
+	 * Returns all lengths of this matrix, with a row for each source and a column for each target.
+	 */
+	public int[][] getLengths() {
+		int[][] result = new int[lengths.length][];
+		for (int row = 0; row < lengths.length; row++)
+			result[row] = lengths[row].clone();
+		return result;
+	}
+
+	/**
+	 * A class of one-to-many sweeps over a road graph, which keep their arrays between rows.
+	 */
+	private static class Sweep {
+
+		/**
+		 * The road graph to sweep over.
+		 */
+		private final RoadGraph graph;
+
+		/**
+		 * The columns of the targets registered at each location.
+		 */
+		private final int[][] columnsAt;
+
+		/**
+		 * The travel time at which each location was reached, infinite if it was not reached.
+		 */
+		private final float[] times;
+
+		/**
+		 * The length of the route over which each location was reached.
+		 */
+		private final int[] lengths;
+
+		/**
+		 * The heap of locations that still have to be settled.
+		 */
+		private final LocationHeap heap;
+
+		/**
+		 * The indices of the locations reached by the last sweep.
+		 */
+		private final int[] touched;
+
+		/**
+		 * The number of locations reached by the last sweep.
+		 */
+		private int touchedCount = 0;
+
+		/**
+		 * Initialize a new sweep over the given road graph.
+		 *
+		 * @param graph The road graph to sweep over
+		 * @param columnsAt The columns of the targets registered at each location
+		 */
+		private Sweep(RoadGraph graph, int[][] columnsAt) {
+			this.graph = graph;
+			this.columnsAt = columnsAt;
+			this.times = new float[graph.getLocationCount()];
+			this.lengths = new int[graph.getLocationCount()];
+			this.heap = new LocationHeap(graph.getLocationCount());
+			this.touched = new int[graph.getLocationCount()];
+			Arrays.fill(times, Float.POSITIVE_INFINITY);
+		}
+
+		/**
+		 * Runs Dijkstra's algorithm from the given location until all targets are settled, and fills in the given row.
+		 *
+		 * @param source The index of the location to start from
+		 * @param targetCount The number of targets
+		 * @param rowTimes The travel times of the row to fill in
+		 * @param rowLengths The lengths of the row to fill in
+		 */
+		private void run(int source, int targetCount, float[] rowTimes, int[] rowLengths) {
+			for (int position = 0; position < touchedCount; position++)
+				times[touched[position]] = Float.POSITIVE_INFINITY;
+			touchedCount = 0;
+			heap.clear();
+			Arrays.fill(rowTimes, Float.POSITIVE_INFINITY);
+			Arrays.fill(rowLengths, -1);
+			int remaining = targetCount;
+			times[source] = 0.0F;
+			lengths[source] = 0;
+			touched[touchedCount++] = source;
+			heap.push(source, 0.0F);
+			while (!heap.isEmpty() && remaining > 0) {
+				float time = heap.peekKey();
+				int index = heap.pop();
+				for (int column : columnsAt[index]) {
+					rowTimes[column] = time;
+					rowLengths[column] = lengths[index];
+					remaining--;
+				}
+				for (int arc = graph.getFirstLeavingArc(index); arc < graph.getFirstLeavingArc(index + 1); arc++) {
+					float arcTime = graph.getTravelTime(arc);
+					if (arcTime == Float.POSITIVE_INFINITY)
+						continue;
+					int next = graph.getHead(arc);
+					float nextTime = time + arcTime;
+					if (nextTime < times[next]) {
+						if (times[next] == Float.POSITIVE_INFINITY)
+							touched[touchedCount++] = next;
+						times[next] = nextTime;
+						lengths[next] = lengths[index] + graph.getLength(arc);
+						heap.push(next, nextTime);
+					}
+				}
+			}
+		}
+	}
+}
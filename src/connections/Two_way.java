@@ -109,11 +109,51 @@ public class Two_way extends Road{
 		return getEndPoints();
 	}
 
+	/**
+	 * Get the number of valid start locations for this road
+	 * For a two way road, these are both endpoints
+	 */
+	@Override
+	public int getStartLocationCount() {
+		return 2;
+	}
+
+	/**
+	 * Get the valid start location at the given position for this road
+	 * For a two way road, these are the first and the second endpoint
+	 */
+	@Override
+	public Location getStartLocationAt(int position) throws IndexOutOfBoundsException {
+		if (position == 0)
+			return location1;
+		if (position == 1)
+			return location2;
+		throw new IndexOutOfBoundsException();
+	}
+
+	/**
+	 * Get the number of valid end locations for this road
+	 * For a two way road, these are both endpoints
+	 */
+	@Override
+	public int getEndLocationCount() {
+		return 2;
+	}
+
+	/**
+	 * Get the valid end location at the given position for this road
+	 * For a two way road, these are the first and the second endpoint
+	 */
+	@Override
+	public Location getEndLocationAt(int position) throws IndexOutOfBoundsException {
+		return getStartLocationAt(position);
+	}
+
 	@Override
 	public Location getOtherLocation(Location location) {
-		if(location==getStartLocations()[0])
-			return getStartLocations()[1];
-		return getStartLocations()[0];
+		if(location==location1)
+			return location2;
+		return location1;
 	}
 
 	/**
@@ -1,13 +1,21 @@
 package facade;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import connections.AlternatingRoad;
+import connections.DelayProfile;
+import connections.IsochroneSearch;
 import connections.Location;
 import connections.One_way;
+import connections.ReachabilityIndex;
 import connections.Road;
 import connections.Route;
+import connections.RoutePlanner;
 import connections.Segments;
+import connections.TourPlanner;
+import connections.TravelTimeMatrix;
 import connections.Two_way;
 
 /**
@@ -227,6 +235,17 @@ public interface Facade {
 		}
 	}
 
+	/**
+	 * Return the non-terminated road with the given identification, or null if there is no such road.
+	 */
+	default Road getRoadWithIdentification(String identification) throws ModelException {
+		try {
+			return Road.lookup(identification);
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
 	/**
 	 * Return the end points of the given road. The method always returns an array
 	 * of length 2.
@@ -378,6 +397,24 @@ public interface Facade {
 		}
 	}
 
+	/**
+	 * Set the delay profile in the direction from the first end point to the
+	 * second end point to the given profile, if directionForth is true, and in the
+	 * opposite direction if directionForth is false. A profile of null removes the
+	 * delay profile in that direction.
+	 */
+	default void changeRoadDelayProfileInDirection(Road road, DelayProfile profile, boolean directionForth)
+			throws ModelException {
+		try {
+			if (directionForth)
+				road.setDelayProfileDirectionEndPointTwo(profile);
+			else
+				road.setDelayProfileDirectionEndPointOne(profile);
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
 	/**
 	 * Check whether the given road is blocked in the direction from the first end
 	 * point to the second end point, if directionForth is true, and in the opposite
@@ -432,6 +469,22 @@ public interface Facade {
 		}
 	}
 
+	/**
+	 * Set the direction schedule of the given road to the given switch times, the
+	 * times of day in seconds at which the road changes direction. The road
+	 * drives from its first end point to its second end point from the start of
+	 * each day until the first switch time. A schedule of null removes the
+	 * schedule. The method throws ModelException if the given road is not an
+	 * alternating road or the switch times are not a valid schedule.
+	 */
+	default void changeRoadDirectionSchedule(Road road, float[] switchTimes) throws ModelException {
+		try {
+			((AlternatingRoad) road).setDirectionSchedule(switchTimes);
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
 	/*****************
 	 * Route methods *
 	 *****************/
@@ -514,6 +567,19 @@ public interface Facade {
 		}
 	}
 
+	/**
+	 * Return the total travel time of the given route given the current delays and
+	 * blocks, which is infinite if one of its roads cannot be driven in the
+	 * direction of the route.
+	 */
+	default float getRouteTravelTime(Route route) throws ModelException {
+		try {
+			return route.getTravelTime();
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
 	/**
 	 * Check whether the given route is traversable from its start location to its
 	 * end location.
@@ -540,4 +606,203 @@ public interface Facade {
 		}
 	}
 
+	/*******************
+	 * Routing methods *
+	 *******************/
+
+	/**
+	 * Return the fastest route from the given start location to the given end
+	 * location, or null if the end location cannot be reached. The method must
+	 * throw ModelException if one of the given locations is not effective or
+	 * terminated.
+	 */
+	default Route getFastestRoute(Location startLocation, Location endLocation) throws ModelException {
+		try {
+			return new RoutePlanner().findFastestRoute(startLocation, endLocation);
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
+	/**
+	 * Return a delay profile with the given breakpoints, each consisting of a time
+	 * of day and a delay in seconds. The method must throw ModelException if the
+	 * breakpoints are not valid for a delay profile.
+	 */
+	default DelayProfile createDelayProfile(float[] times, float[] delays) throws ModelException {
+		try {
+			return new DelayProfile(times, delays);
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
+	/**
+	 * Return the route from the given start location to the given end location
+	 * that arrives earliest when leaving at the given time, taking into account
+	 * the delay profiles of the roads, or null if the end location cannot be
+	 * reached. The method must throw ModelException if one of the given locations
+	 * is not effective or terminated.
+	 */
+	default Route getEarliestArrivalRoute(Location startLocation, Location endLocation, float departureTime)
+			throws ModelException {
+		try {
+			return new RoutePlanner().findEarliestArrivalRoute(startLocation, endLocation, departureTime);
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
+	/**
+	 * Return the time of arrival at the end of the given route when leaving its
+	 * start location at the given time, taking into account the delay profiles of
+	 * the roads. The method must throw ModelException if the given route is not
+	 * effective.
+	 */
+	default float getRouteArrivalTime(Route route, float departureTime) throws ModelException {
+		try {
+			return RoutePlanner.calculateArrivalTime(route, departureTime);
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
+	/**
+	 * Check whether the given end location can be reached from the given start
+	 * location along roads that can be driven in their current direction and are
+	 * not blocked. The method must throw ModelException if one of the given
+	 * locations is not effective or terminated.
+	 */
+	default boolean canReach(Location startLocation, Location endLocation) throws ModelException {
+		try {
+			ReachabilityIndex index = ReachabilityIndex.getSharedIndex();
+			index.addNetwork(startLocation);
+			index.addNetwork(endLocation);
+			return index.canReach(startLocation, endLocation);
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
+	/**
+	 * Return up to the given number of fastest routes from the given start
+	 * location to the given end location that visit no location twice, ordered
+	 * by their total travel time. The method must throw ModelException if one of
+	 * the given locations is not effective or terminated, or if the given number
+	 * is not positive.
+	 */
+	default List<Route> getAlternativeRoutes(Location startLocation, Location endLocation, int count)
+			throws ModelException {
+		try {
+			return new RoutePlanner().findAlternativeRoutes(startLocation, endLocation, count);
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
+	/**
+	 * Return the routes from the given start location to the given end location
+	 * for which no other route is both shorter and faster, ordered by increasing
+	 * total travel time. The method must throw ModelException if one of the given
+	 * locations is not effective or terminated.
+	 */
+	default List<Route> getParetoRoutes(Location startLocation, Location endLocation) throws ModelException {
+		try {
+			return new RoutePlanner().findParetoRoutes(startLocation, endLocation);
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
+	/**
+	 * Return a tour from the given start location through each of the given
+	 * waypoints in a fast order, as a route with a sub-route for each leg, or null
+	 * if some leg of the order found cannot be driven. If returnToStart is true,
+	 * the tour ends in the start location. The method must throw ModelException if
+	 * one of the given locations is not effective or terminated.
+	 */
+	default Route getTour(Location startLocation, Collection<Location> waypoints, boolean returnToStart)
+			throws ModelException {
+		try {
+			return new TourPlanner().planTour(startLocation, waypoints, returnToStart);
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
+	/**
+	 * Repair the given route by replacing its first segment that cannot be
+	 * driven, and the segments after it up to where the detour rejoins the route,
+	 * by a detour. Return true if the route can be driven afterwards, false if no
+	 * detour exists, in which case the route is left unchanged. The method must
+	 * throw ModelException if the given route is not effective.
+	 */
+	default boolean repairRoute(Route route) throws ModelException {
+		try {
+			return new RoutePlanner().repairRoute(route);
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
+	/**
+	 * Return the travel times of the fastest routes from each of the given start
+	 * locations to each of the given end locations, with a row for each start
+	 * location and a column for each end location. Unreachable end locations have
+	 * an infinite travel time. The method must throw ModelException if one of the
+	 * given locations is not effective or terminated.
+	 */
+	default float[][] getTravelTimeMatrix(Location[] startLocations, Location[] endLocations) throws ModelException {
+		try {
+			return new TravelTimeMatrix(startLocations, endLocations, true).getTravelTimes();
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
+	/**
+	 * Return the total lengths of the fastest routes from each of the given start
+	 * locations to each of the given end locations, with a row for each start
+	 * location and a column for each end location. Unreachable end locations have
+	 * a length of -1. The method must throw ModelException if one of the given
+	 * locations is not effective or terminated.
+	 */
+	default int[][] getLengthMatrix(Location[] startLocations, Location[] endLocations) throws ModelException {
+		try {
+			return new TravelTimeMatrix(startLocations, endLocations, true).getLengths();
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
+	/**
+	 * Return a matrix holding both the travel times and the total lengths of the
+	 * fastest routes from each of the given start locations to each of the given
+	 * end locations, computed with a single sweep per start location. The method
+	 * must throw ModelException if one of the given locations is not effective or
+	 * terminated.
+	 */
+	default TravelTimeMatrix createTravelTimeMatrix(Location[] startLocations, Location[] endLocations)
+			throws ModelException {
+		try {
+			return new TravelTimeMatrix(startLocations, endLocations, true);
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
+	/**
+	 * Return every location that can be reached from the given start location
+	 * within the given travel time budget, mapped onto the travel time of the
+	 * fastest route to it. The method must throw ModelException if the given
+	 * location is not effective or terminated, or if the budget is negative.
+	 */
+	default Map<Location, Float> getReachableLocations(Location startLocation, float budget) throws ModelException {
+		try {
+			return IsochroneSearch.getSharedSearch(startLocation).findReachableLocations(startLocation, budget);
+		} catch (Throwable exc) {
+			throw new ModelException();
+		}
+	}
+
 }
@@ -2,7 +2,13 @@ package facade;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.*;
 
@@ -403,6 +409,78 @@ class FullPart3Test {
 		actualScore += 10;
 	}
 
+	@Test
+	void terminateRoad_AttributesKeptAndSlotReused() throws Exception {
+		maxScore += 10;
+		someRoad = theFacade.createTwoWayRoad("X99", leuven, hasselt, 2000, 16.66F, 12.22F);
+		theFacade.changeRoadDelayinDirection(someRoad, 7.0F, true);
+		theFacade.changeRoadBlockedState(someRoad, true, false);
+		int bound = Road.getAttributeSlotBound();
+		theFacade.terminateRoad(someRoad);
+		Road theRoad = theFacade.createTwoWayRoad("X98", hasselt, antwerp, 3000, 20.0F, 15.0F);
+		assertEquals(bound, Road.getAttributeSlotBound());
+		assertEquals(2000, theFacade.getRoadLength(someRoad));
+		assertEquals(16.66F, theFacade.getRoadSpeedLimit(someRoad), 0.001);
+		assertEquals(12.22F, theFacade.getRoadAverageSpeed(someRoad), 0.001);
+		assertEquals(7.0F, theFacade.getRoadDelayinDirection(someRoad, true), 0.001);
+		assertTrue(theFacade.getRoadIsBlocked(someRoad, false));
+		assertEquals(3000, theFacade.getRoadLength(theRoad));
+		assertEquals(0.0F, theFacade.getRoadDelayinDirection(theRoad, true), 0.001);
+		assertFalse(theFacade.getRoadIsBlocked(theRoad, false));
+		actualScore += 6;
+		try {
+			theFacade.createTwoWayRoad("X97", leuven, hasselt, 100, 10.0F, 20.0F);
+			fail("Expecting exception to be thrown");
+		} catch (ModelException exc) {
+			bound = Road.getAttributeSlotBound();
+		}
+		Road anotherRoad = theFacade.createTwoWayRoad("X96", hasselt, brussels, 3000, 20.0F, 15.0F);
+		assertEquals(bound, Road.getAttributeSlotBound());
+		theFacade.terminateRoad(anotherRoad);
+		theFacade.terminateRoad(theRoad);
+		actualScore += 4;
+	}
+
+	@Test
+	void getIndex_ReusedAfterTermination() throws Exception {
+		maxScore += 10;
+		Location start = theFacade.createLocation(new double[] { 50.0, 50.0 }, "Start");
+		int locationIndex = start.getIndex();
+		RoadGraph theGraph = new RoadGraph(Arrays.asList(leuven, start));
+		assertTrue(theGraph.hasAsLocation(start));
+		theFacade.terminateLocation(start);
+		assertEquals(-1, start.getIndex());
+		Location end = theFacade.createLocation(new double[] { 51.0, 50.0 }, "End");
+		assertEquals(locationIndex, end.getIndex());
+		assertFalse(theGraph.hasAsLocation(end));
+		assertFalse(theGraph.hasAsLocation(start));
+		actualScore += 4;
+		someRoad = theFacade.createTwoWayRoad("X99", leuven, end, 4000, 16.66F, 12.22F);
+		int slotBound = Road.getAttributeSlotBound();
+		theFacade.terminateRoad(someRoad);
+		Road theRoad = theFacade.createTwoWayRoad("X98", leuven, end, 4000, 16.66F, 12.22F);
+		assertEquals(slotBound, Road.getAttributeSlotBound());
+		theFacade.terminateRoad(theRoad);
+		actualScore += 3;
+		int locationBound = Location.getIndexBound();
+		slotBound = Road.getAttributeSlotBound();
+		for (int count = 0; count < 20; count++) {
+			try {
+				theFacade.createTwoWayRoad("X97", leuven, end, 100, 10.0F, 20.0F);
+				fail("Expecting exception to be thrown");
+			} catch (ModelException exc) {
+			}
+			try {
+				theFacade.createLocation(null, "Nowhere");
+				fail("Expecting exception to be thrown");
+			} catch (ModelException exc) {
+			}
+		}
+		assertEquals(locationBound, Location.getIndexBound());
+		assertEquals(slotBound, Road.getAttributeSlotBound());
+		actualScore += 3;
+	}
+
 	@Test
 	void changeIdentification_LegalCase() throws Exception {
 		maxScore += 3;
@@ -469,6 +547,89 @@ class FullPart3Test {
 		}
 	}
 
+	@Test
+	void getRoadWithIdentification_LegalCase() throws Exception {
+		maxScore += 6;
+		assertSame(t1_leuven_antwerp, theFacade.getRoadWithIdentification("T1"));
+		assertNull(theFacade.getRoadWithIdentification("T99"));
+		actualScore += 2;
+		theFacade.changeRoadIdentification(t1_leuven_antwerp, "T99");
+		assertNull(theFacade.getRoadWithIdentification("T1"));
+		assertSame(t1_leuven_antwerp, theFacade.getRoadWithIdentification("T99"));
+		actualScore += 2;
+		theFacade.changeRoadIdentification(t1_leuven_antwerp, "T1");
+		theFacade.terminateRoad(t2_leuven_brussels);
+		assertNull(theFacade.getRoadWithIdentification("T2"));
+		actualScore += 2;
+	}
+
+	@Test
+	void getRoadWithIdentification_FailedCreation() throws Exception {
+		maxScore += 6;
+		try {
+			theFacade.createTwoWayRoad("T9", leuven, hasselt, 100, 10.0F, 20.0F);
+			fail("Expecting exception to be thrown");
+		} catch (ModelException exc) {
+			actualScore += 1;
+		}
+		assertNull(theFacade.getRoadWithIdentification("T9"));
+		someRoad = theFacade.createTwoWayRoad("T9", leuven, hasselt, 1500, 16.66F, 12.22F);
+		assertSame(someRoad, theFacade.getRoadWithIdentification("T9"));
+		actualScore += 3;
+		try {
+			theFacade.createTwoWayRoad("T1", leuven, hasselt, 1500, 16.66F, 12.22F);
+			fail("Expecting exception to be thrown");
+		} catch (ModelException exc) {
+			actualScore += 1;
+		}
+		assertSame(t1_leuven_antwerp, theFacade.getRoadWithIdentification("T1"));
+		actualScore += 1;
+	}
+
+	/**
+	 * Checks that the start and end locations of the given segment read one at a time are the locations in the arrays
+	 * returned for it, and that positions outside those arrays are rejected.
+	 */
+	static void assertLocationsAt(Segments segment) {
+		Location[] startLocations = segment.getStartLocations();
+		assertEquals(startLocations.length, segment.getStartLocationCount());
+		for (int position = 0; position < startLocations.length; position++)
+			assertSame(startLocations[position], segment.getStartLocationAt(position));
+		Location[] endLocations = segment.getEndLocations();
+		assertEquals(endLocations.length, segment.getEndLocationCount());
+		for (int position = 0; position < endLocations.length; position++)
+			assertSame(endLocations[position], segment.getEndLocationAt(position));
+		assertThrows(IndexOutOfBoundsException.class, () -> segment.getStartLocationAt(-1));
+		assertThrows(IndexOutOfBoundsException.class, () -> segment.getStartLocationAt(startLocations.length));
+		assertThrows(IndexOutOfBoundsException.class, () -> segment.getEndLocationAt(-1));
+		assertThrows(IndexOutOfBoundsException.class, () -> segment.getEndLocationAt(endLocations.length));
+	}
+
+	@Test
+	void getStartEndLocationAt_AllSegments() throws Exception {
+		maxScore += 10;
+		assertEquals(2, t1_leuven_antwerp.getStartLocationCount());
+		assertSame(leuven, t1_leuven_antwerp.getStartLocationAt(0));
+		assertSame(antwerp, t1_leuven_antwerp.getEndLocationAt(1));
+		assertLocationsAt(t1_leuven_antwerp);
+		assertLocationsAt(c1_circularRoad_antwerp);
+		actualScore += 4;
+		assertEquals(1, O1_brussels_gent_oneWay.getStartLocationCount());
+		assertSame(brussels, O1_brussels_gent_oneWay.getStartLocationAt(0));
+		assertSame(gent, O1_brussels_gent_oneWay.getEndLocationAt(0));
+		assertLocationsAt(O1_brussels_gent_oneWay);
+		assertLocationsAt(a1_gent_brussels_alter);
+		theFacade.reverseTraversalDirection(a1_gent_brussels_alter);
+		assertSame(brussels, a1_gent_brussels_alter.getStartLocationAt(0));
+		assertLocationsAt(a1_gent_brussels_alter);
+		actualScore += 3;
+		assertSame(leuven, route_leuven_antwerp_brussels_gent.getStartLocationAt(0));
+		assertSame(gent, route_leuven_antwerp_brussels_gent.getEndLocationAt(0));
+		assertLocationsAt(route_leuven_antwerp_brussels_gent);
+		assertLocationsAt(emptyRoute_leuven);
+		actualScore += 3;
+	}
+
 	@Test
 	void getStartEndLocations_TwoWayRoad() throws Exception {
 		maxScore += 5;
@@ -860,6 +1021,29 @@ class FullPart3Test {
 		}
 	}
 
+	@Test
+	void createRoute_SameRuleAsAddingSegments() throws Exception {
+		maxScore += 10;
+		Route innerRoute = theFacade.createRoute(antwerp, t1_leuven_antwerp);
+		Route theRoute = theFacade.createRoute(antwerp, t1_leuven_antwerp);
+		try {
+			theFacade.addRouteSegment(theRoute, innerRoute);
+			fail("Expecting exception to be thrown");
+		} catch (ModelException exc) {
+		}
+		try {
+			theFacade.createRoute(antwerp, t1_leuven_antwerp, innerRoute);
+			fail("Expecting exception to be thrown");
+		} catch (ModelException exc) {
+		}
+		try {
+			theFacade.createRoute(leuven, t1_leuven_antwerp, t4_brussels_antwerp, O1_brussels_gent_oneWay, O2_hasselt_gent_oneWay);
+			fail("Expecting exception to be thrown");
+		} catch (ModelException exc) {
+		}
+		actualScore += 10;
+	}
+
 	@Test
 	void createRoute_NullSequenceSegments() throws Exception {
 		maxScore += 3;
@@ -994,6 +1178,49 @@ class FullPart3Test {
 		}
 	}
 
+	@Test
+	void addSegment_SharedNestedRoutes() throws Exception {
+		maxScore += 10;
+		Route theInnerRoute = theFacade.createRoute(antwerp, c1_circularRoad_antwerp);
+		Route theOuterRoute = theInnerRoute;
+		for (int depth = 0; depth < 60; depth++)
+			theOuterRoute = theFacade.createRoute(antwerp, theOuterRoute, theOuterRoute);
+		try {
+			theFacade.addRouteSegment(theInnerRoute, theOuterRoute);
+			fail("Expecting exception to be thrown");
+		} catch (ModelException exc) {
+			actualScore += 5;
+		}
+		theFacade.addRouteSegment(circularRoute_antwerp_leuven_brussels_brussels_antwerp, theOuterRoute);
+		assertEquals(5, theFacade.getRouteSegments(circularRoute_antwerp_leuven_brussels_brussels_antwerp).length);
+		actualScore += 5;
+	}
+
+	@Test
+	void getRoutesContaining_NestedRoutes() throws Exception {
+		maxScore += 10;
+		Route theCircularRoute = circularRoute_antwerp_leuven_brussels_brussels_antwerp;
+		assertEquals(new HashSet<>(Arrays.asList(route_leuven_antwerp_brussels_gent, theCircularRoute)),
+				Route.getRoutesContaining(t1_leuven_antwerp));
+		assertEquals(new HashSet<>(Arrays.asList(theCircularRoute)), Route.getRoutesContaining(c2_circularRoad_brussels));
+		assertTrue(Route.getRoutesContaining(t5_leuven_gent).isEmpty());
+		actualScore += 3;
+		Route theEnclosingRoute = theFacade.createRoute(antwerp, theCircularRoute, t1_leuven_antwerp);
+		Route theOutermostRoute = theFacade.createRoute(antwerp, theEnclosingRoute);
+		assertEquals(new HashSet<>(Arrays.asList(theCircularRoute, theEnclosingRoute, theOutermostRoute)),
+				Route.getRoutesContaining(c2_circularRoad_brussels));
+		assertEquals(new HashSet<>(Arrays.asList(route_leuven_antwerp_brussels_gent, theCircularRoute,
+				theEnclosingRoute, theOutermostRoute)), Route.getRoutesContaining(t1_leuven_antwerp));
+		actualScore += 4;
+		theFacade.removeRouteSegment(theEnclosingRoute, 1);
+		assertTrue(Route.getRoutesContaining(t1_leuven_antwerp).contains(theOutermostRoute));
+		theFacade.removeRouteSegment(theEnclosingRoute, 0);
+		assertEquals(new HashSet<>(Arrays.asList(route_leuven_antwerp_brussels_gent, theCircularRoute)),
+				Route.getRoutesContaining(t1_leuven_antwerp));
+		assertEquals(new HashSet<>(Arrays.asList(theCircularRoute)), Route.getRoutesContaining(c2_circularRoad_brussels));
+		actualScore += 3;
+	}
+
 	@Test
 	void removeSegment_LegalCase() throws Exception {
 		maxScore += 25;
@@ -1018,6 +1245,24 @@ class FullPart3Test {
 		actualScore += 5;
 	}
 
+	@Test
+	void removeSegment_ManySegmentsAtEnd() throws Exception {
+		maxScore += 6;
+		Route theRoute = theFacade.createRoute(antwerp);
+		for (int count = 0; count < 50000; count++)
+			theFacade.addRouteSegment(theRoute, c1_circularRoad_antwerp);
+		theFacade.addRouteSegment(theRoute, t1_leuven_antwerp);
+		assertEquals(50000 * 55 + 1111, theFacade.getRouteTotalLength(theRoute));
+		Location[] theLocations = theFacade.getAllLocations(theRoute);
+		assertEquals(leuven, theLocations[theLocations.length - 1]);
+		actualScore += 3;
+		for (int count = 50001; count > 1; count--)
+			theFacade.removeRouteSegment(theRoute, count - 1);
+		assertEquals(1, theFacade.getRouteSegments(theRoute).length);
+		assertEquals(55, theFacade.getRouteTotalLength(theRoute));
+		actualScore += 3;
+	}
+
 	@Test
 	void removeSegment_IndexOutOfRange() throws Exception {
 		maxScore += 2;
@@ -1062,6 +1307,27 @@ class FullPart3Test {
 		actualScore += 6;
 	}
 
+	@Test
+	void getRouteTravelTime_LegalCase() throws Exception {
+		maxScore += 12;
+		float expected = 1111 / 10.66F + 55 / 50.0F + 70 / 60.0F;
+		assertEquals(expected, theFacade.getRouteTravelTime(route_leuven_antwerp_brussels_gent), 0.01);
+		actualScore += 3;
+		theFacade.changeRoadDelayinDirection(t4_brussels_antwerp, 10.0F, false);
+		assertEquals(expected + 10.0F, theFacade.getRouteTravelTime(route_leuven_antwerp_brussels_gent), 0.01);
+		actualScore += 3;
+		Route theEnclosingRoute = theFacade.createRoute(leuven, route_leuven_antwerp_brussels_gent);
+		theFacade.removeRouteSegment(route_leuven_antwerp_brussels_gent, 2);
+		assertEquals(1111 + 55, theFacade.getRouteTotalLength(route_leuven_antwerp_brussels_gent));
+		assertEquals(expected + 10.0F - 70 / 60.0F, theFacade.getRouteTravelTime(theEnclosingRoute), 0.01);
+		actualScore += 3;
+		theFacade.addRouteSegment(route_leuven_antwerp_brussels_gent, c2_circularRoad_brussels);
+		assertEquals(Float.POSITIVE_INFINITY, theFacade.getRouteTravelTime(route_leuven_antwerp_brussels_gent), 0.01);
+		theFacade.removeRouteSegment(route_leuven_antwerp_brussels_gent, 2);
+		assertEquals(expected + 10.0F - 70 / 60.0F, theFacade.getRouteTravelTime(route_leuven_antwerp_brussels_gent), 0.01);
+		actualScore += 3;
+	}
+
 	@Test
 	void isTraversable_TrueCase() throws Exception {
 		maxScore += 8;
@@ -1081,6 +1347,20 @@ class FullPart3Test {
 		actualScore += 8;
 	}
 
+	@Test
+	void isTraversable_ScheduledAlternatingRoad() throws Exception {
+		maxScore += 8;
+		theFacade.changeRoadDirectionSchedule(a1_gent_brussels_alter, new float[] { 3600.0F, 7200.0F });
+		Route theRoute = theFacade.createRoute(brussels, a1_gent_brussels_alter);
+		assertFalse(theFacade.isRouteTraversable(theRoute));
+		assertTrue(theRoute.toString().contains("Blocked in the direction of the route: true"));
+		assertTrue(theFacade.isRouteTraversable(theFacade.createRoute(gent, a1_gent_brussels_alter)));
+		actualScore += 5;
+		theFacade.reverseTraversalDirection(a1_gent_brussels_alter);
+		assertTrue(theFacade.isRouteTraversable(theRoute));
+		actualScore += 3;
+	}
+
 	@Test
 	void getAllLocations_EmptyRoute() throws Exception {
 		maxScore += 4;
@@ -1118,6 +1398,22 @@ class FullPart3Test {
 		actualScore += 15;
 	}
 	
+	@Test
+	void isTraversable_NestedRoute() throws Exception {
+		maxScore += 10;
+		Route theEnclosingRoute = theFacade.createRoute
+				(antwerp, circularRoute_antwerp_leuven_brussels_brussels_antwerp, t1_leuven_antwerp);
+		assertTrue(theFacade.isRouteTraversable(theEnclosingRoute));
+		actualScore += 3;
+		theFacade.changeRoadBlockedState(t1_leuven_antwerp, true, false);
+		assertFalse(theFacade.isRouteTraversable(theEnclosingRoute));
+		actualScore += 3;
+		theFacade.changeRoadBlockedState(t1_leuven_antwerp, false, false);
+		theFacade.changeRoadBlockedState(t2_leuven_brussels, true, true);
+		assertFalse(theFacade.isRouteTraversable(theEnclosingRoute));
+		actualScore += 4;
+	}
+
 	@Test
 	void addSegment_InvalidatingEnclosingRoute() throws Exception {
 		maxScore += 25;
@@ -1152,4 +1448,697 @@ class FullPart3Test {
 		}
 	}
 
+	/*****************
+	 * Routing tests *
+	 *****************/
+
+	@Test
+	void getFastestRoute_LegalCase() throws Exception {
+		maxScore += 10;
+		Route theRoute = theFacade.getFastestRoute(leuven, gent);
+		assertEquals(leuven, theFacade.getRouteStartLocation(theRoute));
+		assertArrayEquals(new Object[] { t1_leuven_antwerp, t4_brussels_antwerp, O1_brussels_gent_oneWay },
+				theFacade.getRouteSegments(theRoute));
+		actualScore += 5;
+		theFacade.changeRoadBlockedState(O1_brussels_gent_oneWay, true, true);
+		theRoute = theFacade.getFastestRoute(leuven, gent);
+		assertArrayEquals(new Object[] { t5_leuven_gent }, theFacade.getRouteSegments(theRoute));
+		actualScore += 5;
+	}
+
+	@Test
+	void getFastestRoute_Unreachable() throws Exception {
+		maxScore += 5;
+		assertNull(theFacade.getFastestRoute(gent, hasselt));
+		assertEquals(0, theFacade.getRouteSegments(theFacade.getFastestRoute(hasselt, hasselt)).length);
+		actualScore += 5;
+	}
+
+	@Test
+	void roadGraph_CompressedRows() throws Exception {
+		maxScore += 10;
+		RoadGraph theGraph = new RoadGraph(Arrays.asList(leuven));
+		assertEquals(5, theGraph.getLocationCount());
+		assertEquals(11, theGraph.getArcCount());
+		assertEquals(0, theGraph.getFirstLeavingArc(0));
+		assertEquals(11, theGraph.getFirstLeavingArc(5));
+		assertEquals(0, theGraph.getFirstArrivingPosition(0));
+		assertEquals(11, theGraph.getFirstArrivingPosition(5));
+		actualScore += 3;
+		HashSet<Integer> arrivingArcs = new HashSet<>();
+		for (int index = 0; index < 5; index++) {
+			Location theLocation = theGraph.getLocation(index);
+			assertEquals(index, theGraph.getIndex(theLocation));
+			for (int arc = theGraph.getFirstLeavingArc(index); arc < theGraph.getFirstLeavingArc(index + 1); arc++) {
+				assertEquals(index, theGraph.getTail(arc));
+				assertTrue(theGraph.getRoad(arc).isTraversableFrom(theLocation));
+				assertEquals(theGraph.getRoad(arc).getOppositeEndPoint(theLocation), theGraph.getLocation(theGraph.getHead(arc)));
+				assertEquals(theGraph.getRoad(arc).calculateTravelTimeFrom(theLocation), theGraph.getTravelTime(arc), 0.001);
+				assertEquals(theGraph.getRoad(arc).getLength(), theGraph.getLength(arc));
+			}
+			for (int position = theGraph.getFirstArrivingPosition(index);
+					position < theGraph.getFirstArrivingPosition(index + 1); position++) {
+				assertEquals(index, theGraph.getHead(theGraph.getArrivingArc(position)));
+				arrivingArcs.add(theGraph.getArrivingArc(position));
+			}
+		}
+		assertEquals(11, arrivingArcs.size());
+		assertEquals(1, theGraph.getFirstLeavingArc(theGraph.getIndex(hasselt) + 1)
+				- theGraph.getFirstLeavingArc(theGraph.getIndex(hasselt)));
+		assertEquals(0, theGraph.getFirstArrivingPosition(theGraph.getIndex(hasselt) + 1)
+				- theGraph.getFirstArrivingPosition(theGraph.getIndex(hasselt)));
+		actualScore += 7;
+	}
+
+	@Test
+	void roadGraph_WithCurrentTravelTimes() throws Exception {
+		maxScore += 10;
+		RoadGraph theGraph = new RoadGraph(Arrays.asList(leuven));
+		assertTrue(theGraph.hasCurrentTravelTimes());
+		assertSame(theGraph, theGraph.withCurrentTravelTimes());
+		int arc = theGraph.getFirstLeavingArc(theGraph.getIndex(hasselt));
+		actualScore += 2;
+		theFacade.changeRoadDelayinDirection(O2_hasselt_gent_oneWay, 10.0F, true);
+		theFacade.changeRoadLength(O2_hasselt_gent_oneWay, 3000);
+		assertFalse(theGraph.hasCurrentTravelTimes());
+		assertFalse(theGraph.isOutdated());
+		RoadGraph theUpdatedGraph = theGraph.withCurrentTravelTimes();
+		assertNotSame(theGraph, theUpdatedGraph);
+		assertTrue(theUpdatedGraph.hasCurrentTravelTimes());
+		assertEquals(theGraph.getArcCount(), theUpdatedGraph.getArcCount());
+		assertEquals(O2_hasselt_gent_oneWay, theUpdatedGraph.getRoad(arc));
+		assertEquals(3000 / 12.22F + 10.0F, theUpdatedGraph.getTravelTime(arc), 0.01);
+		assertEquals(3000, theUpdatedGraph.getLength(arc));
+		assertEquals(1500 / 12.22F, theGraph.getTravelTime(arc), 0.01);
+		assertEquals(1500, theGraph.getLength(arc));
+		actualScore += 5;
+		theFacade.changeRoadBlockedState(O2_hasselt_gent_oneWay, true, true);
+		assertEquals(Float.POSITIVE_INFINITY, theUpdatedGraph.withCurrentTravelTimes().getTravelTime(arc), 0.0);
+		someRoad = theFacade.createTwoWayRoad("T9", hasselt, leuven, 1000, 16.66F, 12.22F);
+		assertTrue(theGraph.isOutdated());
+		assertFalse(theGraph.withCurrentTravelTimes().hasCurrentTravelTimes());
+		actualScore += 3;
+	}
+
+	@Test
+	void roadGraph_Rebuild() throws Exception {
+		maxScore += 5;
+		RoadGraph theGraph = new RoadGraph(Arrays.asList(hasselt));
+		someRoad = theFacade.createTwoWayRoad("T9", hasselt, leuven, 1000, 16.66F, 12.22F);
+		assertTrue(theGraph.isOutdated());
+		RoadGraph theRebuiltGraph = theGraph.rebuild();
+		assertFalse(theRebuiltGraph.isOutdated());
+		assertTrue(theRebuiltGraph.hasCurrentTravelTimes());
+		assertEquals(theGraph.getLocationCount(), theRebuiltGraph.getLocationCount());
+		assertEquals(theGraph.getArcCount() + 2, theRebuiltGraph.getArcCount());
+		actualScore += 5;
+	}
+
+	@Test
+	void getFastestRoute_PlannerReusedAfterChanges() throws Exception {
+		maxScore += 9;
+		RoutePlanner thePlanner = new RoutePlanner();
+		Location[] theLocations = { leuven, antwerp, brussels, gent, hasselt };
+		for (Location origin : theLocations) {
+			for (Location destination : theLocations)
+				assertAsFast(theFacade.getFastestRoute(origin, destination), thePlanner.findFastestRoute(origin, destination));
+		}
+		actualScore += 3;
+		theFacade.changeRoadDelayinDirection(t5_leuven_gent, 500.0F, true);
+		theFacade.changeRoadBlockedState(t4_brussels_antwerp, true, false);
+		for (Location origin : theLocations) {
+			for (Location destination : theLocations)
+				assertAsFast(theFacade.getFastestRoute(origin, destination), thePlanner.findFastestRoute(origin, destination));
+		}
+		actualScore += 3;
+		Location theLocation = theFacade.createLocation(new double[] { 12.0, 12.0 }, "Mechelen");
+		assertNull(thePlanner.findFastestRoute(leuven, theLocation));
+		someRoad = theFacade.createTwoWayRoad("T9", leuven, theLocation, 1000, 16.66F, 12.22F);
+		assertAsFast(theFacade.getFastestRoute(gent, theLocation), thePlanner.findFastestRoute(gent, theLocation));
+		assertEquals(1, thePlanner.findFastestRoute(leuven, theLocation).getRouteSegments().length);
+		actualScore += 3;
+	}
+
+	@Test
+	void getFastestRoute_AStarMatchesDijkstra() throws Exception {
+		maxScore += 10;
+		Location start = theFacade.createLocation(new double[] { 0.0, 0.0 }, "Start");
+		Location end = theFacade.createLocation(new double[] { 0.0, 10.9 }, "End");
+		someRoad = theFacade.createTwoWayRoad("S1", start, end, 10, 19.0F, 19.0F);
+		assertTrue(someRoad.calculateStraightLineSpeed() > someRoad.getRoadSpeed());
+		assertTrue(Road.getFastestStraightLineSpeed() >= someRoad.calculateStraightLineSpeed());
+		actualScore += 4;
+		RoutePlanner thePlanner = new RoutePlanner();
+		Location[] theLocations = { leuven, antwerp, brussels, gent, hasselt, start, end };
+		for (Location origin : theLocations) {
+			for (Location destination : theLocations) {
+				Route theDijkstraRoute = thePlanner.findFastestRoute(origin, destination);
+				Route theAStarRoute = thePlanner.findFastestRoute(origin, destination, RoutePlanner.SearchMode.A_STAR);
+				if (theDijkstraRoute == null)
+					assertNull(theAStarRoute);
+				else
+					assertEquals(theDijkstraRoute.getTravelTime(), theAStarRoute.getTravelTime(), 0.001);
+			}
+		}
+		actualScore += 6;
+	}
+
+	/**
+	 * Asserts that the given route is as fast as the given fastest route, or that both are null.
+	 */
+	static void assertAsFast(Route expected, Route actual) {
+		if (expected == null) {
+			assertNull(actual);
+		} else {
+			assertNotNull(actual);
+			assertEquals(expected.getStartLocations()[0], actual.getStartLocations()[0]);
+			assertEquals(expected.getEndLocation(), actual.getEndLocation());
+			assertEquals(expected.getTravelTime(), actual.getTravelTime(), 0.001);
+		}
+	}
+
+	@Test
+	void getLeavingAndArrivingRoads_LegalCase() throws Exception {
+		maxScore += 6;
+		assertEquals(new HashSet<Road>(Arrays.asList(t5_leuven_gent, a1_gent_brussels_alter)), gent.getLeavingRoads());
+		assertEquals(new HashSet<Road>(Arrays.asList(t5_leuven_gent, O1_brussels_gent_oneWay, O2_hasselt_gent_oneWay)),
+				gent.getArrivingRoads());
+		assertEquals(new HashSet<Road>(Arrays.asList(O2_hasselt_gent_oneWay)), hasselt.getLeavingRoads());
+		assertTrue(hasselt.getArrivingRoads().isEmpty());
+		actualScore += 3;
+		theFacade.changeRoadBlockedState(t5_leuven_gent, true, false);
+		assertFalse(gent.getLeavingRoads().contains(t5_leuven_gent));
+		assertTrue(gent.getArrivingRoads().contains(t5_leuven_gent));
+		assertTrue(leuven.getLeavingRoads().contains(t5_leuven_gent));
+		assertFalse(leuven.getArrivingRoads().contains(t5_leuven_gent));
+		actualScore += 3;
+	}
+
+	@Test
+	void getFastestRoute_BidirectionalMatchesDijkstra() throws Exception {
+		maxScore += 8;
+		RoutePlanner thePlanner = new RoutePlanner();
+		Location[] theLocations = { leuven, antwerp, brussels, gent, hasselt };
+		for (Location origin : theLocations) {
+			for (Location destination : theLocations)
+				assertAsFast(thePlanner.findFastestRoute(origin, destination),
+						thePlanner.findFastestRoute(origin, destination, RoutePlanner.SearchMode.BIDIRECTIONAL));
+		}
+		actualScore += 4;
+		theFacade.changeRoadBlockedState(O1_brussels_gent_oneWay, true, true);
+		theFacade.reverseTraversalDirection(a1_gent_brussels_alter);
+		for (Location origin : theLocations) {
+			for (Location destination : theLocations)
+				assertAsFast(thePlanner.findFastestRoute(origin, destination),
+						thePlanner.findFastestRoute(origin, destination, RoutePlanner.SearchMode.BIDIRECTIONAL));
+		}
+		actualScore += 4;
+	}
+
+	@Test
+	void getFastestRoute_ContractionHierarchy() throws Exception {
+		maxScore += 12;
+		Location[] theLocations = { leuven, antwerp, brussels, gent, hasselt };
+		ContractionHierarchy theHierarchy = new ContractionHierarchy(Arrays.asList(theLocations));
+		for (Location origin : theLocations) {
+			for (Location destination : theLocations)
+				assertAsFast(theFacade.getFastestRoute(origin, destination), theHierarchy.findFastestRoute(origin, destination));
+		}
+		actualScore += 4;
+		theFacade.changeRoadBlockedState(t1_leuven_antwerp, true, true);
+		theFacade.changeRoadBlockedState(t1_leuven_antwerp, true, false);
+		assertFalse(theHierarchy.isUpToDate());
+		for (Location origin : theLocations) {
+			for (Location destination : theLocations)
+				assertAsFast(theFacade.getFastestRoute(origin, destination), theHierarchy.findFastestRoute(origin, destination));
+		}
+		assertTrue(theHierarchy.isUpToDate());
+		actualScore += 4;
+		theFacade.changeRoadLength(t2_leuven_brussels, 150);
+		theFacade.changeRoadDelayinDirection(t4_brussels_antwerp, 100.0F, true);
+		assertFalse(theHierarchy.isUpToDate());
+		for (Location origin : theLocations) {
+			for (Location destination : theLocations)
+				assertAsFast(theFacade.getFastestRoute(origin, destination), theHierarchy.findFastestRoute(origin, destination));
+		}
+		actualScore += 4;
+	}
+
+	@Test
+	void getFastestRoute_CustomizableRouteIndex() throws Exception {
+		maxScore += 12;
+		Location[] theLocations = { leuven, antwerp, brussels, gent, hasselt };
+		CustomizableRouteIndex theIndex = new CustomizableRouteIndex(Arrays.asList(theLocations));
+		assertTrue(theIndex.isUpToDate());
+		assertTrue(theIndex.isCustomized());
+		for (Location origin : theLocations) {
+			for (Location destination : theLocations)
+				assertAsFast(theFacade.getFastestRoute(origin, destination), theIndex.findFastestRoute(origin, destination));
+		}
+		actualScore += 4;
+		theFacade.changeRoadBlockedState(O1_brussels_gent_oneWay, true, true);
+		theFacade.changeRoadDelayinDirection(t1_leuven_antwerp, 500.0F, true);
+		assertTrue(theIndex.isUpToDate());
+		assertFalse(theIndex.isCustomized());
+		theIndex.customize();
+		assertTrue(theIndex.isCustomized());
+		for (Location origin : theLocations) {
+			for (Location destination : theLocations)
+				assertAsFast(theFacade.getFastestRoute(origin, destination), theIndex.findFastestRoute(origin, destination));
+		}
+		actualScore += 4;
+		theFacade.reverseTraversalDirection(a1_gent_brussels_alter);
+		theFacade.changeRoadLength(t2_leuven_brussels, 100);
+		assertFalse(theIndex.isUpToDate());
+		for (Location origin : theLocations) {
+			for (Location destination : theLocations)
+				assertAsFast(theFacade.getFastestRoute(origin, destination), theIndex.findFastestRoute(origin, destination));
+		}
+		assertTrue(theIndex.isUpToDate());
+		assertTrue(theIndex.isCustomized());
+		actualScore += 4;
+	}
+
+	@Test
+	void getFastestRoute_LandmarkIndexSaveAndLoad() throws Exception {
+		maxScore += 15;
+		Location[] theLocations = { leuven, antwerp, brussels, gent, hasselt };
+		LandmarkIndex theIndex = new LandmarkIndex(Arrays.asList(theLocations), 2);
+		for (Location origin : theLocations) {
+			for (Location destination : theLocations)
+				assertAsFast(theFacade.getFastestRoute(origin, destination), theIndex.findFastestRoute(origin, destination));
+		}
+		actualScore += 5;
+		File theFile = File.createTempFile("landmarks", ".bin");
+		theFile.deleteOnExit();
+		theIndex.save(theFile);
+		LandmarkIndex theLoadedIndex = LandmarkIndex.load(theFile, Arrays.asList(theLocations));
+		assertArrayEquals(theIndex.getLandmarks(), theLoadedIndex.getLandmarks());
+		for (Location origin : theLocations) {
+			for (Location destination : theLocations)
+				assertAsFast(theFacade.getFastestRoute(origin, destination), theLoadedIndex.findFastestRoute(origin, destination));
+		}
+		actualScore += 5;
+		theFacade.changeRoadLength(t4_brussels_antwerp, 5000);
+		try {
+			LandmarkIndex.load(theFile, Arrays.asList(theLocations));
+			fail("Expecting exception to be thrown");
+		} catch (IOException exc) {
+			actualScore += 3;
+		}
+		theFacade.changeRoadLength(t4_brussels_antwerp, 55);
+		theFacade.reverseTraversalDirection(a1_gent_brussels_alter);
+		try {
+			LandmarkIndex.load(theFile, Arrays.asList(theLocations));
+			fail("Expecting exception to be thrown");
+		} catch (IOException exc) {
+			actualScore += 2;
+		}
+	}
+
+	@Test
+	void getFastestRoute_LandmarkIndexShorterAndFasterRoads() throws Exception {
+		maxScore += 10;
+		Location[] theLocations = { leuven, antwerp, brussels, gent, hasselt };
+		LandmarkIndex theIndex = new LandmarkIndex(Arrays.asList(theLocations), 2);
+		theFacade.changeRoadDelayinDirection(t4_brussels_antwerp, 100.0F, true);
+		assertTrue(theIndex.isUpToDate());
+		actualScore += 2;
+		theFacade.changeRoadLength(t2_leuven_brussels, 20);
+		assertFalse(theIndex.isUpToDate());
+		for (Location origin : theLocations) {
+			for (Location destination : theLocations)
+				assertAsFast(theFacade.getFastestRoute(origin, destination), theIndex.findFastestRoute(origin, destination));
+		}
+		assertTrue(theIndex.isUpToDate());
+		actualScore += 4;
+		theFacade.changeRoadSpeedLimit(t5_leuven_gent, 200.0F);
+		theFacade.changeRoadAverageSpeed(t5_leuven_gent, 150.0F);
+		assertFalse(theIndex.isUpToDate());
+		for (Location origin : theLocations) {
+			for (Location destination : theLocations)
+				assertAsFast(theFacade.getFastestRoute(origin, destination), theIndex.findFastestRoute(origin, destination));
+		}
+		actualScore += 4;
+	}
+
+	@Test
+	void canReach_LegalCase() throws Exception {
+		maxScore += 10;
+		assertTrue(theFacade.canReach(leuven, gent));
+		assertTrue(theFacade.canReach(hasselt, gent));
+		assertFalse(theFacade.canReach(gent, hasselt));
+		actualScore += 5;
+		theFacade.changeRoadBlockedState(t5_leuven_gent, true, false);
+		theFacade.reverseTraversalDirection(a1_gent_brussels_alter);
+		assertFalse(theFacade.canReach(gent, leuven));
+		assertTrue(theFacade.canReach(leuven, gent));
+		actualScore += 5;
+	}
+
+	@Test
+	void canReach_InfiniteDelay() throws Exception {
+		maxScore += 6;
+		ReachabilityIndex theIndex = new ReachabilityIndex(Arrays.asList(hasselt));
+		assertTrue(theIndex.canReach(hasselt, gent));
+		theFacade.changeRoadDelayinDirection(O2_hasselt_gent_oneWay, Float.POSITIVE_INFINITY, true);
+		assertNull(theFacade.getFastestRoute(hasselt, gent));
+		assertFalse(theIndex.canReach(hasselt, gent));
+		assertFalse(theFacade.canReach(hasselt, gent));
+		actualScore += 4;
+		theFacade.changeRoadDelayinDirection(O2_hasselt_gent_oneWay, 0, true);
+		assertTrue(theIndex.canReach(hasselt, gent));
+		actualScore += 2;
+	}
+
+	@Test
+	void canReach_SeparateNetworks() throws Exception {
+		maxScore += 11;
+		Location start = theFacade.createLocation(new double[] { 50.0, 50.0 }, "Start");
+		Location end = theFacade.createLocation(new double[] { 51.0, 50.0 }, "End");
+		someRoad = theFacade.createOneWayRoad("S1", start, end, 1500, 16.66F, 12.22F);
+		assertTrue(theFacade.canReach(start, end));
+		assertFalse(theFacade.canReach(end, start));
+		assertFalse(theFacade.canReach(leuven, end));
+		assertTrue(theFacade.canReach(leuven, gent));
+		actualScore += 4;
+		ReachabilityIndex theIndex = ReachabilityIndex.getSharedIndex();
+		int count = theIndex.getComponentCount();
+		end.terminate();
+		assertEquals(count - 1, theIndex.getComponentCount());
+		assertSame(theIndex, ReachabilityIndex.getSharedIndex());
+		actualScore += 4;
+		ReachabilityIndex.clearSharedIndex();
+		assertNotSame(theIndex, ReachabilityIndex.getSharedIndex());
+		assertEquals(0, ReachabilityIndex.getSharedIndex().getComponentCount());
+		assertTrue(theFacade.canReach(leuven, gent));
+		actualScore += 3;
+	}
+
+	@Test
+	void canReach_CachedAfterChanges() throws Exception {
+		maxScore += 8;
+		Location start = theFacade.createLocation(new double[] { 50.0, 50.0 }, "Start");
+		Location end = theFacade.createLocation(new double[] { 51.0, 50.0 }, "End");
+		someRoad = theFacade.createAlternatingRoad("S1", start, end, 1500, 16.66F, 12.22F);
+		ReachabilityIndex theIndex = new ReachabilityIndex(Arrays.asList(hasselt, start));
+		assertTrue(theIndex.canReach(start, end));
+		assertTrue(theIndex.canReach(hasselt, gent));
+		assertFalse(theIndex.canReach(gent, hasselt));
+		theFacade.changeRoadDelayinDirection(O2_hasselt_gent_oneWay, Float.POSITIVE_INFINITY, true);
+		assertTrue(theIndex.canReach(start, end));
+		assertEquals(theFacade.getFastestRoute(hasselt, gent) != null, theIndex.canReach(hasselt, gent));
+		actualScore += 4;
+		theFacade.reverseTraversalDirection(someRoad);
+		assertFalse(theIndex.canReach(start, end));
+		assertTrue(theIndex.canReach(end, start));
+		theFacade.changeRoadDelayinDirection(O2_hasselt_gent_oneWay, 0, true);
+		assertTrue(theIndex.canReach(hasselt, gent));
+		actualScore += 4;
+	}
+
+	@Test
+	void getAlternativeRoutes_LegalCase() throws Exception {
+		maxScore += 10;
+		List<Route> routes = theFacade.getAlternativeRoutes(leuven, gent, 3);
+		assertArrayEquals(theFacade.getRouteSegments(theFacade.getFastestRoute(leuven, gent)),
+				theFacade.getRouteSegments(routes.get(0)));
+		actualScore += 4;
+		assertTrue(routes.size() >= 2);
+		for (Route theRoute : routes) {
+			Location[] locations = theFacade.getAllLocations(theRoute);
+			assertEquals(leuven, locations[0]);
+			assertEquals(gent, locations[locations.length - 1]);
+			assertEquals(locations.length, new HashSet<>(Arrays.asList(locations)).size());
+		}
+		assertFalse(Arrays.equals(theFacade.getRouteSegments(routes.get(0)), theFacade.getRouteSegments(routes.get(1))));
+		actualScore += 6;
+	}
+
+	@Test
+	void getAlternativeRoutes_IllegalCount() throws Exception {
+		maxScore += 3;
+		try {
+			theFacade.getAlternativeRoutes(leuven, gent, 0);
+			fail("Expecting exception to be thrown");
+		} catch (ModelException exc) {
+			actualScore += 3;
+		}
+	}
+
+	@Test
+	void getParetoRoutes_LegalCase() throws Exception {
+		maxScore += 10;
+		List<Route> routes = theFacade.getParetoRoutes(leuven, gent);
+		assertArrayEquals(theFacade.getRouteSegments(theFacade.getFastestRoute(leuven, gent)),
+				theFacade.getRouteSegments(routes.get(0)));
+		actualScore += 4;
+		for (int index = 1; index < routes.size(); index++)
+			assertTrue(theFacade.getRouteTotalLength(routes.get(index)) < theFacade.getRouteTotalLength(routes.get(index - 1)));
+		assertTrue(theFacade.getParetoRoutes(gent, hasselt).isEmpty());
+		actualScore += 6;
+	}
+
+	@Test
+	void getEarliestArrivalRoute_LegalCase() throws Exception {
+		maxScore += 10;
+		DelayProfile rushHour = theFacade.createDelayProfile(new float[] { 0.0F, 43200.0F }, new float[] { 0.0F, 100.0F });
+		theFacade.changeRoadDelayProfileInDirection(O1_brussels_gent_oneWay, rushHour, true);
+		Route theRoute = theFacade.getEarliestArrivalRoute(leuven, gent, 0.0F);
+		assertArrayEquals(new Object[] { t1_leuven_antwerp, t4_brussels_antwerp, O1_brussels_gent_oneWay },
+				theFacade.getRouteSegments(theRoute));
+		actualScore += 4;
+		theRoute = theFacade.getEarliestArrivalRoute(leuven, gent, 43000.0F);
+		assertArrayEquals(new Object[] { t5_leuven_gent }, theFacade.getRouteSegments(theRoute));
+		assertEquals(43000.0F + 1500 / 12.22F, theFacade.getRouteArrivalTime(theRoute, 43000.0F), 0.01);
+		actualScore += 6;
+	}
+
+	@Test
+	void getEarliestArrivalRoute_DirectionSchedule() throws Exception {
+		maxScore += 10;
+		theFacade.changeRoadDirectionSchedule(a1_gent_brussels_alter, new float[] { 3600.0F, 7200.0F });
+		Route theRoute = theFacade.createRoute(gent, a1_gent_brussels_alter);
+		assertEquals(3000.0F + 1500 / 12.22F, theFacade.getRouteArrivalTime(theRoute, 3000.0F), 0.01);
+		assertEquals(7200.0F + 1500 / 12.22F, theFacade.getRouteArrivalTime(theRoute, 5000.0F), 0.01);
+		actualScore += 4;
+		assertArrayEquals(new Object[] { a1_gent_brussels_alter },
+				theFacade.getRouteSegments(theFacade.getEarliestArrivalRoute(gent, brussels, 3000.0F)));
+		assertArrayEquals(new Object[] { t5_leuven_gent, t1_leuven_antwerp, t4_brussels_antwerp },
+				theFacade.getRouteSegments(theFacade.getEarliestArrivalRoute(gent, brussels, 4000.0F)));
+		actualScore += 6;
+	}
+
+	@Test
+	void changeRoadDirectionSchedule_OddSwitchCount() throws Exception {
+		maxScore += 3;
+		try {
+			theFacade.changeRoadDirectionSchedule(a1_gent_brussels_alter, new float[] { 3600.0F });
+			fail("Expecting exception to be thrown");
+		} catch (ModelException exc) {
+			actualScore += 3;
+		}
+	}
+
+	@Test
+	void createDelayProfile_NotFifo() throws Exception {
+		maxScore += 3;
+		try {
+			theFacade.createDelayProfile(new float[] { 0.0F, 10.0F }, new float[] { 100.0F, 0.0F });
+			fail("Expecting exception to be thrown");
+		} catch (ModelException exc) {
+			actualScore += 3;
+		}
+	}
+
+	@Test
+	void changeRoadDelayProfile_IllegalCaseOneWayRoad() throws Exception {
+		maxScore += 3;
+		DelayProfile rushHour = theFacade.createDelayProfile(new float[] { 0.0F, 43200.0F }, new float[] { 0.0F, 100.0F });
+		try {
+			theFacade.changeRoadDelayProfileInDirection(O2_hasselt_gent_oneWay, rushHour, false);
+			fail("Expecting exception to be thrown");
+		} catch (ModelException exc) {
+			actualScore += 3;
+		}
+	}
+
+	@Test
+	void changeRoadDelayProfile_IllegalCaseAlternatingRoad() throws Exception {
+		maxScore += 8;
+		DelayProfile rushHour = theFacade.createDelayProfile(new float[] { 0.0F, 43200.0F }, new float[] { 0.0F, 100.0F });
+		try {
+			theFacade.changeRoadDelayProfileInDirection(a1_gent_brussels_alter, rushHour, false);
+			fail("Expecting exception to be thrown");
+		} catch (ModelException exc) {
+			actualScore += 3;
+		}
+		theFacade.reverseTraversalDirection(a1_gent_brussels_alter);
+		theFacade.changeRoadDelayProfileInDirection(a1_gent_brussels_alter, rushHour, false);
+		assertSame(rushHour, a1_gent_brussels_alter.getDelayProfileDirectionEndPointOne());
+		actualScore += 2;
+		DelayProfile nightWork = theFacade.createDelayProfile(new float[] { 0.0F, 43200.0F }, new float[] { 50.0F, 0.0F });
+		theFacade.changeRoadDirectionSchedule(a1_gent_brussels_alter, new float[] { 21600.0F, 64800.0F });
+		theFacade.changeRoadDelayProfileInDirection(a1_gent_brussels_alter, nightWork, true);
+		assertSame(rushHour, a1_gent_brussels_alter.getDelayProfileDirectionEndPointOne());
+		assertSame(nightWork, a1_gent_brussels_alter.getDelayProfileDirectionEndPointTwo());
+		actualScore += 3;
+	}
+
+	@Test
+	void getTour_LegalCase() throws Exception {
+		maxScore += 10;
+		Route theTour = theFacade.getTour(leuven, Arrays.asList(gent, antwerp, gent), false);
+		Object[] legs = theFacade.getRouteSegments(theTour);
+		assertEquals(2, legs.length);
+		assertArrayEquals(new Object[] { t1_leuven_antwerp }, theFacade.getRouteSegments((Route) legs[0]));
+		assertArrayEquals(new Object[] { t4_brussels_antwerp, O1_brussels_gent_oneWay },
+				theFacade.getRouteSegments((Route) legs[1]));
+		actualScore += 6;
+		theTour = theFacade.getTour(leuven, Arrays.asList(gent, antwerp), true);
+		legs = theFacade.getRouteSegments(theTour);
+		assertEquals(3, legs.length);
+		assertEquals(leuven, theFacade.getRouteStartLocation((Route) legs[0]));
+		assertNull(theFacade.getTour(leuven, Arrays.asList(hasselt), false));
+		actualScore += 4;
+	}
+
+	@Test
+	void getTour_LegsMatchFastestRoutes() throws Exception {
+		maxScore += 6;
+		theFacade.changeRoadDelayinDirection(t4_brussels_antwerp, 200.0F, true);
+		Route theTour = theFacade.getTour(gent, Arrays.asList(antwerp, brussels, leuven), true);
+		for (Object leg : theFacade.getRouteSegments(theTour)) {
+			Location[] locations = theFacade.getAllLocations((Route) leg);
+			Route fastest = theFacade.getFastestRoute(locations[0], locations[locations.length - 1]);
+			assertEquals(theFacade.getRouteTravelTime(fastest), theFacade.getRouteTravelTime((Route) leg), 0.01);
+		}
+		actualScore += 6;
+	}
+
+	@Test
+	void repairRoute_LegalCase() throws Exception {
+		maxScore += 10;
+		Route theRoute = theFacade.createRoute(leuven, t1_leuven_antwerp, t4_brussels_antwerp, O1_brussels_gent_oneWay);
+		assertTrue(theFacade.repairRoute(theRoute));
+		assertEquals(3, theFacade.getRouteSegments(theRoute).length);
+		actualScore += 3;
+		theFacade.changeRoadBlockedState(O1_brussels_gent_oneWay, true, true);
+		assertTrue(theFacade.repairRoute(theRoute));
+		assertArrayEquals(new Object[] { t1_leuven_antwerp, t4_brussels_antwerp, t4_brussels_antwerp, t1_leuven_antwerp, t5_leuven_gent },
+				theFacade.getRouteSegments(theRoute));
+		assertTrue(theFacade.isRouteTraversable(theRoute));
+		actualScore += 7;
+	}
+
+	@Test
+	void repairRoute_NoDetour() throws Exception {
+		maxScore += 5;
+		Route theRoute = theFacade.createRoute(leuven, t5_leuven_gent);
+		theFacade.changeRoadBlockedState(t5_leuven_gent, true, true);
+		theFacade.changeRoadBlockedState(t1_leuven_antwerp, true, true);
+		theFacade.changeRoadBlockedState(t2_leuven_brussels, true, true);
+		assertFalse(theFacade.repairRoute(theRoute));
+		assertArrayEquals(new Object[] { t5_leuven_gent }, theFacade.getRouteSegments(theRoute));
+		actualScore += 5;
+	}
+
+	@Test
+	void getTravelTimeMatrix_LegalCase() throws Exception {
+		maxScore += 10;
+		Location[] starts = { leuven, hasselt };
+		Location[] ends = { gent, leuven, hasselt };
+		float[][] times = theFacade.getTravelTimeMatrix(starts, ends);
+		int[][] lengths = theFacade.getLengthMatrix(starts, ends);
+		assertEquals(2, times.length);
+		assertEquals(3, times[0].length);
+		assertEquals(1111 / 10.66F + 55 / 50.0F + 70 / 60.0F, times[0][0], 0.01);
+		assertEquals(1111 + 55 + 70, lengths[0][0]);
+		assertEquals(0.0F, times[0][1], 0.01);
+		assertEquals(Float.POSITIVE_INFINITY, times[0][2]);
+		assertEquals(-1, lengths[0][2]);
+		assertEquals(1500 / 12.22F, times[1][0], 0.01);
+		actualScore += 10;
+	}
+
+	@Test
+	void createTravelTimeMatrix_TimesAndLengths() throws Exception {
+		maxScore += 5;
+		Location[] starts = { leuven, hasselt };
+		Location[] ends = { gent, leuven, hasselt };
+		TravelTimeMatrix matrix = theFacade.createTravelTimeMatrix(starts, ends);
+		float[][] times = theFacade.getTravelTimeMatrix(starts, ends);
+		int[][] lengths = theFacade.getLengthMatrix(starts, ends);
+		for (int row = 0; row < starts.length; row++) {
+			for (int column = 0; column < ends.length; column++) {
+				assertEquals(times[row][column], matrix.getTravelTime(row, column), 0.01);
+				assertEquals(lengths[row][column], matrix.getLength(row, column));
+			}
+		}
+		assertEquals(1111 + 55 + 70, matrix.getLength(0, 0));
+		assertEquals(-1, matrix.getLength(0, 2));
+		actualScore += 5;
+	}
+
+	@Test
+	void getTravelTimeMatrix_TerminatedLocation() throws Exception {
+		maxScore += 3;
+		Location theLocation = theFacade.createLocation(new double[] { 12.0, 12.0 }, "Mechelen");
+		theFacade.terminateLocation(theLocation);
+		try {
+			theFacade.getTravelTimeMatrix(new Location[] { leuven }, new Location[] { theLocation });
+			fail("Expecting exception to be thrown");
+		} catch (ModelException exc) {
+			actualScore += 3;
+		}
+	}
+
+	@Test
+	void getReachableLocations_LegalCase() throws Exception {
+		maxScore += 10;
+		Map<Location, Float> reachable = theFacade.getReachableLocations(leuven, 0.0F);
+		assertEquals(1, reachable.size());
+		assertEquals(0.0F, reachable.get(leuven), 0.01);
+		actualScore += 3;
+		reachable = theFacade.getReachableLocations(leuven, 1000.0F);
+		assertEquals(1111 / 10.66F + 55 / 50.0F + 70 / 60.0F, reachable.get(gent), 0.01);
+		assertFalse(reachable.containsKey(hasselt));
+		actualScore += 7;
+	}
+
+	@Test
+	void getReachableLocations_SharedSearch() throws Exception {
+		maxScore += 11;
+		IsochroneSearch theSearch = IsochroneSearch.getSharedSearch(leuven);
+		assertSame(theSearch, IsochroneSearch.getSharedSearch(gent));
+		theFacade.changeRoadDelayinDirection(O1_brussels_gent_oneWay, 100.0F, true);
+		Map<Location, Float> reachable = theFacade.getReachableLocations(leuven, 1000.0F);
+		assertEquals(1500 / 12.22F, reachable.get(gent), 0.01);
+		assertSame(theSearch, IsochroneSearch.getSharedSearch(leuven));
+		actualScore += 4;
+		Location start = theFacade.createLocation(new double[] { 50.0, 50.0 }, "Start");
+		Location end = theFacade.createLocation(new double[] { 51.0, 50.0 }, "End");
+		someRoad = theFacade.createOneWayRoad("S1", start, end, 1500, 16.66F, 12.22F);
+		reachable = theFacade.getReachableLocations(start, 1000.0F);
+		assertEquals(2, reachable.size());
+		assertEquals(1500 / 12.22F, reachable.get(end), 0.01);
+		assertNotSame(theSearch, IsochroneSearch.getSharedSearch(start));
+		actualScore += 4;
+		assertSame(theSearch, IsochroneSearch.getSharedSearch(leuven));
+		assertTrue(theSearch.isUpToDate());
+		assertNotSame(theSearch, IsochroneSearch.getSharedSearch(start));
+		actualScore += 3;
+	}
+
+	@Test
+	void getReachableLocations_NegativeBudget() throws Exception {
+		maxScore += 3;
+		try {
+			theFacade.getReachableLocations(leuven, -1.0F);
+			fail("Expecting exception to be thrown");
+		} catch (ModelException exc) {
+			actualScore += 3;
+		}
+	}
+
 }